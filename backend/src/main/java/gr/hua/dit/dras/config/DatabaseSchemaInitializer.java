@@ -0,0 +1,49 @@
+package gr.hua.dit.dras.config;
+
+/* imports */
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.stereotype.Component;
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Applies the PostgreSQL objects that Hibernate's schema update cannot express
+ * (functions, generated columns, GIN and BRIN indexes, partitioned tables). Every script is idempotent.
+ * They run once every singleton is created, so after Hibernate has updated its tables, but before
+ * the web server and the schedulers start: no request or import can see the schema half applied.
+ */
+@Component
+public class DatabaseSchemaInitializer implements SmartInitializingSingleton {
+
+    /* Executed in order */
+    private static final List<String> SCRIPTS = List.of(
+            "db/fulltext.sql",
+            "db/listing-images.sql",
+            "db/listing-archive.sql",
+            "db/price-observations.sql"
+    );
+
+    private final DataSource dataSource;
+
+    public DatabaseSchemaInitializer(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator();
+        populator.setSqlScriptEncoding("UTF-8");
+        /*
+         * Spring would split DO blocks and function bodies at their inner semicolons, so each
+         * script goes to the driver as one statement, which the PostgreSQL driver splits itself
+         */
+        populator.setSeparator(ScriptUtils.EOF_STATEMENT_SEPARATOR);
+        SCRIPTS.forEach(script -> populator.addScript(new ClassPathResource(script)));
+        populator.execute(dataSource);
+
+        System.out.println("Database schema scripts applied: " + SCRIPTS);
+    }
+}
@@ -0,0 +1,39 @@
+package gr.hua.dit.dras.config;
+
+/* imports */
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Turns on Hibernate's second-level and query caches, kept in-process by the Caffeine
+ * JCache provider with the regions of {@code application.conf}. Only entities annotated with
+ * {@code @Cache} (Role, Owner, Listing) and queries hinted as cacheable use them.
+ * Statistics are collected for the per-region counters of /api/admin/caches.
+ * Setting {@code dras.cache.second-level.enabled=false} runs without either cache.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    private static final String CAFFEINE_PROVIDER = "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider";
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(
+            @Value("${dras.cache.second-level.enabled:true}") boolean enabled) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, enabled);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, enabled);
+            properties.put(AvailableSettings.GENERATE_STATISTICS, enabled);
+            /* Statistics would otherwise log a metrics summary for every session */
+            properties.put(AvailableSettings.LOG_SESSION_METRICS, false);
+            if (enabled) {
+                properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+                properties.put("hibernate.javax.cache.provider", CAFFEINE_PROVIDER);
+                /* Regions not configured in application.conf get the provider default */
+                properties.put("hibernate.javax.cache.missing_cache_strategy", "create");
+            }
+        };
+    }
+}
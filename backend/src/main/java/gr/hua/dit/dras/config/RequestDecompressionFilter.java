@@ -0,0 +1,169 @@
+package gr.hua.dit.dras.config;
+
+/* imports */
+import com.github.luben.zstd.ZstdInputStream;
+import gr.hua.dit.dras.imports.LimitedInputStream;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Decodes gzip and zstd request bodies ({@code Content-Encoding}) sent to the import API,
+ * so scrapers can upload compressed batches. Bodies are decompressed while they are read;
+ * the endpoints see the plain payload and never the compressed size. A body that decodes to
+ * more than {@code dras.import.max-decoded-bytes} is refused with 413.
+ */
+@Component
+public class RequestDecompressionFilter extends OncePerRequestFilter {
+
+    private static final String IMPORT_PATH = "/api/external-import/";
+
+    /* Buffer of the decompressing stream, the size the servlet container reads in */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final long maxDecodedBytes;
+
+    public RequestDecompressionFilter(@Value("${dras.import.max-decoded-bytes:268435456}") long maxDecodedBytes) {
+        this.maxDecodedBytes = maxDecodedBytes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + IMPORT_PATH)
+                || request.getHeader(HttpHeaders.CONTENT_ENCODING) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING).trim().toLowerCase(Locale.ROOT);
+
+        switch (encoding) {
+            case "identity" -> chain.doFilter(request, response);
+            case "gzip", "x-gzip", "zstd" ->
+                    chain.doFilter(new DecodedRequest(request, encoding, maxDecodedBytes), response);
+            default -> response.sendError(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE,
+                    "Unsupported content encoding: " + encoding);
+        }
+    }
+
+    /**
+     * The request as it was before compression: decoded body, no encoding, unknown length.
+     */
+    private static final class DecodedRequest extends HttpServletRequestWrapper {
+
+        private final String encoding;
+        private final long maxDecodedBytes;
+        private ServletInputStream body;
+
+        private DecodedRequest(HttpServletRequest request, String encoding, long maxDecodedBytes) {
+            super(request);
+            this.encoding = encoding;
+            this.maxDecodedBytes = maxDecodedBytes;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (body == null) {
+                InputStream raw = super.getInputStream();
+                InputStream decoded = encoding.equals("zstd")
+                        ? new ZstdInputStream(raw)
+                        : new GZIPInputStream(raw, BUFFER_SIZE);
+                body = new DecodedInputStream(new LimitedInputStream(decoded, maxDecodedBytes));
+            }
+            return body;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String charset = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset == null ? "UTF-8" : charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            if (HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                return null;
+            }
+            return super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            if (HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                return Collections.emptyEnumeration();
+            }
+            return super.getHeaders(name);
+        }
+    }
+
+    private static final class DecodedInputStream extends ServletInputStream {
+
+        private final InputStream decoded;
+        private boolean finished;
+
+        private DecodedInputStream(InputStream decoded) {
+            this.decoded = decoded;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = decoded.read();
+            finished = b < 0;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = decoded.read(buffer, offset, length);
+            finished = read < 0;
+            return read;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener listener) {
+            throw new UnsupportedOperationException("Compressed import bodies are read blocking");
+        }
+
+        @Override
+        public void close() throws IOException {
+            decoded.close();
+        }
+    }
+}
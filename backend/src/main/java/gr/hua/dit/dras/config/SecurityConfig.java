@@ -36,7 +36,7 @@ public class SecurityConfig {
                         .requestMatchers("/users").hasRole("ADMIN")
                         .requestMatchers("/listing/delete/**").hasRole("OWNER")
                         /* public endpoints */
-                        .requestMatchers("/", "/home", "/listing", "/api/external-import/**", "/contact/contactus", "/privacy", "/about", "/TermsOfService", "/register", "/saveUser", "/images/**", "/js/**", "/css/**").permitAll()
+                        .requestMatchers("/", "/home", "/listing", "/api/external-import/**", "/api/listings", "/api/listings/**", "/contact/contactus", "/privacy", "/about", "/TermsOfService", "/register", "/saveUser", "/images/**", "/js/**", "/css/**").permitAll()
                         /* any other request */
                         .anyRequest().authenticated()
                 )
@@ -0,0 +1,40 @@
+package gr.hua.dit.dras.controllers;
+
+/* imports */
+import gr.hua.dit.dras.dto.CacheStatsDTO;
+import gr.hua.dit.dras.services.ListingFilterCacheService;
+import gr.hua.dit.dras.services.SecondLevelCacheService;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.web.bind.annotation.*;
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/caches")
+public class CacheStatsController {
+
+    private final ListingFilterCacheService filterCache;
+    private final SecondLevelCacheService secondLevelCache;
+
+    public CacheStatsController(ListingFilterCacheService filterCache, SecondLevelCacheService secondLevelCache) {
+        this.filterCache = filterCache;
+        this.secondLevelCache = secondLevelCache;
+    }
+
+    @Secured("ADMIN")
+    @GetMapping
+    public List<CacheStatsDTO> getCacheStats() {
+        List<CacheStatsDTO> stats = new ArrayList<>();
+        stats.add(filterCache.getStats());
+        stats.addAll(secondLevelCache.getStats());
+        return stats;
+    }
+
+    @Secured("ADMIN")
+    @DeleteMapping
+    public String clearCaches() {
+        filterCache.clear();
+        secondLevelCache.clear();
+        return "Caches cleared.";
+    }
+}
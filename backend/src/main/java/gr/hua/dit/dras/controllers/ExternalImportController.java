@@ -2,24 +2,184 @@ package gr.hua.dit.dras.controllers;
 
 /* imports */
 import gr.hua.dit.dras.dto.ExternalListingDTO;
+import gr.hua.dit.dras.dto.ExternalListingDeltaDTO;
+import gr.hua.dit.dras.dto.ImportJobDTO;
+import gr.hua.dit.dras.dto.ImportSourceDTO;
+import gr.hua.dit.dras.entities.ImportSource;
+import gr.hua.dit.dras.imports.ExternalListingReader;
+import gr.hua.dit.dras.imports.ImportInProgressException;
+import gr.hua.dit.dras.imports.ImportJob;
+import gr.hua.dit.dras.imports.ImportProgress;
+import gr.hua.dit.dras.imports.ListingCsvReader;
+import gr.hua.dit.dras.imports.PayloadFormat;
+import gr.hua.dit.dras.services.DeltaImportService;
 import gr.hua.dit.dras.services.ExternalListingImportService;
+import gr.hua.dit.dras.services.ImportIdempotencyService;
+import gr.hua.dit.dras.services.ImportPayloadReaders;
+import gr.hua.dit.dras.services.ImportJobService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/external-import")
 public class ExternalImportController {
 
+    public static final String NDJSON = PayloadFormat.NDJSON_TYPE;
+    public static final String CBOR = PayloadFormat.CBOR_TYPE;
+    public static final String SMILE = PayloadFormat.SMILE_TYPE;
+    public static final String CSV = "text/csv";
+
+    /* Sent by clients that may retry; a retried import returns the first response without running again */
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     private final ExternalListingImportService importService;
+    private final ImportJobService importJobService;
+    private final DeltaImportService deltaImportService;
+    private final ImportIdempotencyService importIdempotencyService;
+    private final ImportPayloadReaders payloadReaders;
 
-    public ExternalImportController(ExternalListingImportService importService) {
+    public ExternalImportController(ExternalListingImportService importService,
+                                    ImportJobService importJobService,
+                                    DeltaImportService deltaImportService,
+                                    ImportIdempotencyService importIdempotencyService,
+                                    ImportPayloadReaders payloadReaders) {
         this.importService = importService;
+        this.importJobService = importJobService;
+        this.deltaImportService = deltaImportService;
+        this.importIdempotencyService = importIdempotencyService;
+        this.payloadReaders = payloadReaders;
     }
 
+    /**
+     * Imports a batch sent as JSON, CBOR or Smile; the binary formats are decoded from the
+     * request stream by their message converters. Bodies may be gzip or zstd compressed.
+     */
     @PostMapping("/listings")
-    public String importListings(@RequestBody List<ExternalListingDTO> dtos) {
-        importService.importExternalListings(dtos);
-        return "Imported " + dtos.size() + " external listings.";
+    public String importListings(@RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                 @RequestBody List<ExternalListingDTO> dtos) throws IOException {
+        return idempotent(idempotencyKey, () -> {
+            ImportProgress progress = importService.importExternalListings(dtos);
+            return "Imported external listings: " + progress + ".";
+        });
+    }
+
+    /**
+     * Streaming variant: accepts a JSON array, NDJSON, or CBOR or Smile listings of any size
+     * and persists them chunk by chunk while the body is still being received.
+     * Bodies may be gzip or zstd compressed (see RequestDecompressionFilter).
+     */
+    @PostMapping(value = "/listings/stream", consumes = {MediaType.APPLICATION_JSON_VALUE, NDJSON, CBOR, SMILE})
+    public String streamListings(@RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                 @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                 InputStream body) throws IOException {
+        return idempotent(idempotencyKey, () -> {
+            ImportProgress progress = new ImportProgress();
+            try (ExternalListingReader reader = payloadReaders.open(contentType, body)) {
+                importService.importExternalListings(reader, progress);
+                return "Imported external listings: " + progress + ".";
+            }
+        });
+    }
+
+    /**
+     * Loads a scraper CSV snapshot (rentola_athens_listings.csv) with COPY and set-based merges.
+     * The snapshot is applied in one transaction, so a failure leaves the listings untouched.
+     */
+    @PostMapping(value = "/listings/csv", consumes = CSV)
+    public String importCsvSnapshot(@RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                    InputStream body) throws IOException {
+        return idempotent(idempotencyKey, () -> {
+            try (ListingCsvReader reader = new ListingCsvReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+                ImportProgress progress = importService.importCsvSnapshot(reader);
+                return "Imported external listings: " + progress + ".";
+            }
+        });
+    }
+
+    /**
+     * Returns the delta state of a source; its watermark is where the next delta must start.
+     */
+    @GetMapping("/sources/{source}")
+    public ImportSourceDTO getSource(@PathVariable String source) {
+        ImportSource importSource = deltaImportService.getSource(source);
+        if (importSource == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Import source not found");
+        }
+        return new ImportSourceDTO(importSource);
+    }
+
+    /**
+     * Applies the changes and tombstones of a source since its watermark, then advances it.
+     * A delta computed from another watermark is refused with 409.
+     */
+    @PostMapping("/sources/{source}/delta")
+    public String applyDelta(@RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                             @PathVariable String source, @RequestBody ExternalListingDeltaDTO delta) throws IOException {
+        return idempotent(idempotencyKey, () -> {
+            try {
+                ImportProgress progress = deltaImportService.applyDelta(source, delta);
+                return "Applied delta of " + source + " up to " + delta.getWatermark() + ": " + progress + ".";
+            } catch (IllegalStateException e) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Queues the payload (JSON array, NDJSON, CBOR or Smile) for background import
+     * and returns the job, whose progress can be polled by id.
+     * A retried submission returns the job queued the first time.
+     */
+    @PostMapping(value = "/jobs", consumes = {MediaType.APPLICATION_JSON_VALUE, NDJSON, CBOR, SMILE})
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ImportJobDTO submitJob(@RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                  @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                  InputStream body) throws IOException {
+        String jobId = idempotent(idempotencyKey, () -> {
+            try {
+                return importJobService.submit(body, PayloadFormat.forContentType(contentType)).getId();
+            } catch (IllegalStateException e) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+            }
+        });
+
+        ImportJob job = importJobService.getJob(jobId);
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Already submitted as import job " + jobId + ", which is no longer retained");
+        }
+        return new ImportJobDTO(job);
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ImportJobDTO getJob(@PathVariable String id) {
+        ImportJob job = importJobService.getJob(id);
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Import job not found");
+        }
+        return new ImportJobDTO(job);
+    }
+
+    /**
+     * Runs an import at most once per idempotency key. Invalid input is a 400, and a retry
+     * arriving while the first attempt still runs is a 409.
+     */
+    private String idempotent(String idempotencyKey, ImportIdempotencyService.Import importCall) throws IOException {
+        try {
+            return importIdempotencyService.execute(idempotencyKey, importCall);
+        } catch (ImportInProgressException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 
 }
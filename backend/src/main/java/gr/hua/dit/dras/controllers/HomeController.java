@@ -28,8 +28,8 @@ public class HomeController {
     public String home(Model model) {
         model.addAttribute("title", "Home");
 
-        /* featured listings */
-        model.addAttribute("listings", listingService.getListings());
+        /* featured listings (newest first page only) */
+        model.addAttribute("listings", listingService.getListingPage(null, null).getItems());
         return "index";
     }
 
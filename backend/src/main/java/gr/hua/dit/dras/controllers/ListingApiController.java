@@ -0,0 +1,69 @@
+package gr.hua.dit.dras.controllers;
+
+/* imports */
+import gr.hua.dit.dras.dto.CursorPage;
+import gr.hua.dit.dras.dto.ListingFilterDTO;
+import gr.hua.dit.dras.dto.PriceTrendDTO;
+import gr.hua.dit.dras.model.enums.ListingStatus;
+import gr.hua.dit.dras.search.ListingField;
+import gr.hua.dit.dras.services.ListingService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-only JSON API over listings.
+ * Accepts the same criteria as the filter page, e.g.
+ * GET /api/listings?type=APARTMENT&maxPrice=800&fields=id,price,pricePerM2&cursor=...
+ * Anonymous callers only see approved listings, without the fields of {@link ListingField#RESTRICTED}.
+ */
+@RestController
+@RequestMapping("/api/listings")
+public class ListingApiController {
+
+    private final ListingService listingService;
+
+    public ListingApiController(ListingService listingService) {
+        this.listingService = listingService;
+    }
+
+    @GetMapping
+    public CursorPage<Map<String, Object>> searchListings(ListingFilterDTO filter,
+                                                          @RequestParam(value = "cursor", required = false) String cursor,
+                                                          @RequestParam(value = "size", required = false) Integer size,
+                                                          @RequestParam(value = "fields", required = false) String fields,
+                                                          Authentication authentication) {
+        try {
+            Set<ListingField> selected = ListingField.parse(fields);
+            if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+                filter.setStatus(ListingStatus.APPROVED);
+                selected = ListingField.anonymous(selected);
+            }
+            return listingService.filterListingFields(filter, cursor, size, selected);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Weekly median rent, e.g. GET /api/listings/price-trend?from=2025-01-01&to=2025-07-01
+     */
+    @GetMapping("/price-trend")
+    public List<PriceTrendDTO> priceTrend(@RequestParam(value = "from", required = false)
+                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                          @RequestParam(value = "to", required = false)
+                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return listingService.getWeeklyPriceTrend(from, to);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package gr.hua.dit.dras.controllers;
 
 /* imports */
+import gr.hua.dit.dras.dto.CursorPage;
+import gr.hua.dit.dras.dto.ListingCardDTO;
 import gr.hua.dit.dras.dto.ListingFilterDTO;
 import gr.hua.dit.dras.entities.*;
 import gr.hua.dit.dras.model.enums.ListingStatus;
@@ -63,11 +65,20 @@ public class ListingController {
         model.addAttribute("currentUserId", currentUserId);
     }
 
+    /* Exposes one page of listings and the cursor of the next one */
+    private void addListingPage(Model model, CursorPage<ListingCardDTO> page) {
+        model.addAttribute("listings", page.getItems());
+        model.addAttribute("nextCursor", page.getNextCursor());
+        model.addAttribute("hasNext", page.hasNext());
+    }
+
     /* Public listings */
     @GetMapping("/listings")
-    public String showListings(Model model) {
+    public String showListings(@RequestParam(value = "cursor", required = false) String cursor,
+                               @RequestParam(value = "size", required = false) Integer size,
+                               Model model) {
 
-        model.addAttribute("listings", listingService.getListings());
+        addListingPage(model, listingService.getListingPage(cursor, size));
         return "listing/listings";
     }
 
@@ -213,7 +224,7 @@ public class ListingController {
             e.printStackTrace();
         }
 
-        model.addAttribute("listings", listingService.getListings());
+        addListingPage(model, listingService.getListingPage(null, null));
         model.addAttribute("successMessage",
                 "Your listing was submitted successfully! Awaiting approval.");
         return "listing/listings";
@@ -268,7 +279,7 @@ public class ListingController {
         listingService.deleteListing(id);
         System.out.println("Listing deleted successfully.");
 
-        model.addAttribute("listings", listingService.getListings()); //list of remaining listings
+        addListingPage(model, listingService.getListingPage(null, null)); //first page of remaining listings
         model.addAttribute("successMessage", "Listing deleted successfully!");
         return "listing/mylisting"; //back to the listings list page
     }
@@ -397,7 +408,7 @@ public class ListingController {
         Owner owner = ownerService.getOwner(ownerId);
         ownerService.assignOwnerToListing(id, owner);
 
-        model.addAttribute("listings", listingService.getListings());
+        addListingPage(model, listingService.getListingPage(null, null));
         model.addAttribute("successMessage", "Form submitted successfully!");
         return "listing/listings";
     }
@@ -420,7 +431,7 @@ public class ListingController {
         }
 
         ownerService.unassignOwnerFromListing(id);
-        model.addAttribute("listings", listingService.getListings());
+        addListingPage(model, listingService.getListingPage(null, null));
         return "listing/listings";
     }
 
@@ -461,7 +472,7 @@ public class ListingController {
         Tenant tenant = tenantService.getTenant(tenantId);
         tenantService.assignTenantToListing(id, tenant, "TENANT");
 
-        model.addAttribute("listings", listingService.getListings());
+        addListingPage(model, listingService.getListingPage(null, null));
         return "listing/listings";
     }
 
@@ -483,7 +494,7 @@ public class ListingController {
 
         tenantService.unassignTenantFromListing(id, tenantService.getTenantIdForCurrentUser());
 
-        model.addAttribute("listings", listingService.getListings());
+        addListingPage(model, listingService.getListingPage(null, null));
         return "listing/listings";
     }
 
@@ -518,11 +529,13 @@ public class ListingController {
 
     /* Every role is allowed to, at the very least, filter listings */
     @GetMapping("/filter")
-    public String filterListings(ListingFilterDTO filter, Model model) {
-
-        List<Listing> listings = listingService.filterListings(filter);
+    public String filterListings(ListingFilterDTO filter,
+                                 @RequestParam(value = "cursor", required = false) String cursor,
+                                 @RequestParam(value = "size", required = false) Integer size,
+                                 Model model) {
 
-        model.addAttribute("listings", listings);
+        addListingPage(model, listingService.filterListingsPage(filter, cursor, size));
+        model.addAttribute("facets", listingService.getFacets(filter));
         model.addAttribute("filter", filter);
         return "listing/listings";
     }
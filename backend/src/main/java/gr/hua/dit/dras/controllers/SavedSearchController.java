@@ -0,0 +1,51 @@
+package gr.hua.dit.dras.controllers;
+
+/* imports */
+import gr.hua.dit.dras.dto.ListingFilterDTO;
+import gr.hua.dit.dras.dto.SavedSearchDTO;
+import gr.hua.dit.dras.services.SavedSearchService;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import java.util.List;
+
+/**
+ * Saved searches of the current tenant. The criteria use the same parameters
+ * as the listing filter, e.g. POST /api/saved-searches?name=Near+work&near=Syntagma&radiusKm=2
+ */
+@RestController
+@RequestMapping("/api/saved-searches")
+public class SavedSearchController {
+
+    private final SavedSearchService savedSearchService;
+
+    public SavedSearchController(SavedSearchService savedSearchService) {
+        this.savedSearchService = savedSearchService;
+    }
+
+    @Secured("USER")
+    @GetMapping
+    public List<SavedSearchDTO> getSavedSearches() {
+        return savedSearchService.getSavedSearchesForCurrentTenant().stream()
+                .map(SavedSearchDTO::new)
+                .toList();
+    }
+
+    @Secured("USER")
+    @PostMapping
+    public SavedSearchDTO saveSearch(@RequestParam("name") String name, ListingFilterDTO filter) {
+        try {
+            return new SavedSearchDTO(savedSearchService.saveSearchForCurrentTenant(name, filter));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @Secured("USER")
+    @DeleteMapping("/{id}")
+    public String deleteSearch(@PathVariable Integer id) {
+        savedSearchService.deleteSearchForCurrentTenant(id);
+        return "Saved search deleted.";
+    }
+}
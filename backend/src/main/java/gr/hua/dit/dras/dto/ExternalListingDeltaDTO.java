@@ -0,0 +1,61 @@
+package gr.hua.dit.dras.dto;
+
+/* imports */
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Changes of one source since its stored watermark: listings that were added or changed,
+ * and tombstones (source URLs) of listings that vanished. {@code since} is the watermark
+ * the delta was computed from, null for the first delta of a source, which must also
+ * give the URL prefix of its listings.
+ */
+public class ExternalListingDeltaDTO {
+
+    private Instant since;
+    private Instant watermark;
+    private String urlPrefix;
+    private List<ExternalListingDTO> upserts = new ArrayList<>();
+    private List<String> tombstones = new ArrayList<>();
+
+    public Instant getSince() {
+        return since;
+    }
+
+    public void setSince(Instant since) {
+        this.since = since;
+    }
+
+    public Instant getWatermark() {
+        return watermark;
+    }
+
+    public void setWatermark(Instant watermark) {
+        this.watermark = watermark;
+    }
+
+    public String getUrlPrefix() {
+        return urlPrefix;
+    }
+
+    public void setUrlPrefix(String urlPrefix) {
+        this.urlPrefix = urlPrefix;
+    }
+
+    public List<ExternalListingDTO> getUpserts() {
+        return upserts;
+    }
+
+    public void setUpserts(List<ExternalListingDTO> upserts) {
+        this.upserts = upserts == null ? new ArrayList<>() : upserts;
+    }
+
+    public List<String> getTombstones() {
+        return tombstones;
+    }
+
+    public void setTombstones(List<String> tombstones) {
+        this.tombstones = tombstones == null ? new ArrayList<>() : tombstones;
+    }
+}
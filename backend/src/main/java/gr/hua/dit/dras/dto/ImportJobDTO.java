@@ -0,0 +1,93 @@
+package gr.hua.dit.dras.dto;
+
+/* imports */
+import gr.hua.dit.dras.imports.ImportJob;
+import gr.hua.dit.dras.imports.ImportProgress;
+import java.time.Instant;
+
+/**
+ * Status of a background import job as returned by the API.
+ */
+public class ImportJobDTO {
+
+    private final String id;
+    private final ImportJob.Status status;
+    private final Instant submittedAt;
+    private final Instant startedAt;
+    private final Instant finishedAt;
+    private final long processed;
+    private final long inserted;
+    private final long updated;
+    private final long skipped;
+    private final long failed;
+    private final double rate;
+    private final String error;
+
+    public ImportJobDTO(ImportJob job) {
+        ImportProgress progress = job.getProgress();
+
+        this.id = job.getId();
+        this.status = job.getStatus();
+        this.submittedAt = job.getSubmittedAt();
+        this.startedAt = progress == null ? null : progress.getStartedAt();
+        this.finishedAt = progress == null ? null : progress.getFinishedAt();
+        this.processed = progress == null ? 0 : progress.getProcessed();
+        this.inserted = progress == null ? 0 : progress.getInserted();
+        this.updated = progress == null ? 0 : progress.getUpdated();
+        this.skipped = progress == null ? 0 : progress.getSkipped();
+        this.failed = progress == null ? 0 : progress.getFailed();
+        this.rate = progress == null ? 0.0 : progress.getRate();
+        this.error = job.getError();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public ImportJob.Status getStatus() {
+        return status;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public long getInserted() {
+        return inserted;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * Listings processed per second.
+     */
+    public double getRate() {
+        return rate;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,39 @@
+package gr.hua.dit.dras.dto;
+
+/* imports */
+import gr.hua.dit.dras.entities.ImportSource;
+import java.time.Instant;
+
+/**
+ * Delta import state of a source as returned by the API.
+ */
+public class ImportSourceDTO {
+
+    private final String name;
+    private final String urlPrefix;
+    private final Instant watermark;
+    private final Instant updatedAt;
+
+    public ImportSourceDTO(ImportSource source) {
+        this.name = source.getName();
+        this.urlPrefix = source.getUrlPrefix();
+        this.watermark = source.getWatermark();
+        this.updatedAt = source.getUpdatedAt();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getUrlPrefix() {
+        return urlPrefix;
+    }
+
+    public Instant getWatermark() {
+        return watermark;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,95 @@
+package gr.hua.dit.dras.dto;
+
+/* imports */
+import gr.hua.dit.dras.model.enums.ListingStatus;
+import gr.hua.dit.dras.model.enums.PropertyType;
+import java.time.Instant;
+
+/**
+ * Read-only summary of a listing for grids and search results.
+ * Loaded with a single constructor query; it carries no description,
+ * owner, tenant or applicants, so nothing is lazily loaded while rendering.
+ */
+public class ListingCardDTO {
+
+    private final Integer id;
+    private final String title;
+    private final Integer price;
+    private final Integer pricePerM2;
+    private final Integer sizeM2;
+    private final Integer rooms;
+    private final PropertyType propertyType;
+    private final ListingStatus status;
+    private final boolean external;
+    private final String imageUrl;
+    private final Instant updatedAt;
+
+    public ListingCardDTO(Integer id,
+                          String title,
+                          Integer price,
+                          Integer pricePerM2,
+                          Integer sizeM2,
+                          Integer rooms,
+                          PropertyType propertyType,
+                          ListingStatus status,
+                          boolean external,
+                          String imageUrl,
+                          Instant updatedAt) {
+        this.id = id;
+        this.title = title;
+        this.price = price;
+        this.pricePerM2 = pricePerM2;
+        this.sizeM2 = sizeM2;
+        this.rooms = rooms;
+        this.propertyType = propertyType;
+        this.status = status;
+        this.external = external;
+        this.imageUrl = imageUrl;
+        this.updatedAt = updatedAt;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public Integer getPrice() {
+        return price;
+    }
+
+    public Integer getPricePerM2() {
+        return pricePerM2;
+    }
+
+    public Integer getSizeM2() {
+        return sizeM2;
+    }
+
+    public Integer getRooms() {
+        return rooms;
+    }
+
+    public PropertyType getPropertyType() {
+        return propertyType;
+    }
+
+    public ListingStatus getStatus() {
+        return status;
+    }
+
+    public boolean isExternal() {
+        return external;
+    }
+
+    /* First image of the listing, or null if it has none */
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,65 @@
+package gr.hua.dit.dras.dto;
+
+/* imports */
+import gr.hua.dit.dras.model.enums.PropertyType;
+import gr.hua.dit.dras.model.enums.RentalDuration;
+import java.util.Map;
+
+/**
+ * Facet counts of a filter result, shown next to the listings in the filter sidebar.
+ * Every map is keyed by facet value and ordered for display.
+ */
+public class ListingFacetsDTO {
+
+    private final long total;
+    private final Map<PropertyType, Long> propertyTypes;
+    private final Map<String, Long> priceBands;
+    private final Map<Integer, Long> rooms;
+    private final Map<RentalDuration, Long> rentalDurations;
+    private final long external;
+    private final long local;
+
+    public ListingFacetsDTO(long total,
+                            Map<PropertyType, Long> propertyTypes,
+                            Map<String, Long> priceBands,
+                            Map<Integer, Long> rooms,
+                            Map<RentalDuration, Long> rentalDurations,
+                            long external,
+                            long local) {
+        this.total = total;
+        this.propertyTypes = propertyTypes;
+        this.priceBands = priceBands;
+        this.rooms = rooms;
+        this.rentalDurations = rentalDurations;
+        this.external = external;
+        this.local = local;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public Map<PropertyType, Long> getPropertyTypes() {
+        return propertyTypes;
+    }
+
+    public Map<String, Long> getPriceBands() {
+        return priceBands;
+    }
+
+    public Map<Integer, Long> getRooms() {
+        return rooms;
+    }
+
+    public Map<RentalDuration, Long> getRentalDurations() {
+        return rentalDurations;
+    }
+
+    public long getExternal() {
+        return external;
+    }
+
+    public long getLocal() {
+        return local;
+    }
+}
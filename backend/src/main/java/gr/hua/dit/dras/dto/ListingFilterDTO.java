@@ -1,21 +1,46 @@
 package gr.hua.dit.dras.dto;
 
 /* imports */
+import gr.hua.dit.dras.model.enums.ListingStatus;
 import gr.hua.dit.dras.model.enums.PropertyType;
+import gr.hua.dit.dras.model.enums.RentalDuration;
 import java.time.LocalDate;
 
 public class ListingFilterDTO {
 
     private String title;
 
+    /* Full-text query over title, subtitle and description */
+    private String query;
+
     private Integer minPrice;
     private Integer maxPrice;
 
+    private Integer minPricePerM2;
+    private Integer maxPricePerM2;
+
+    private Integer minSize;
+    private Integer maxSize;
+
     private PropertyType type;
+    private ListingStatus status;
+    private RentalDuration rentalDuration;
 
     private String municipality;
     private String district;
 
+    /* Radius search: a center, given directly or as a gazetteer place name, and a radius */
+    private String near;
+    private Double latitude;
+    private Double longitude;
+    private Double radiusKm;
+
+    /* Bounding-box search */
+    private Double minLatitude;
+    private Double maxLatitude;
+    private Double minLongitude;
+    private Double maxLongitude;
+
     private Integer minBedrooms;
     private Integer maxBedrooms;
 
@@ -38,6 +63,14 @@ public class ListingFilterDTO {
         this.title = title;
     }
 
+    public String getQuery() {
+        return query;
+    }
+
+    public void setQuery(String query) {
+        this.query = query;
+    }
+
     public LocalDate getUpdatedBefore() {
         return updatedBefore;
     }
@@ -118,6 +151,70 @@ public class ListingFilterDTO {
         this.municipality = municipality;
     }
 
+    public String getNear() {
+        return near;
+    }
+
+    public void setNear(String near) {
+        this.near = near;
+    }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    public Double getRadiusKm() {
+        return radiusKm;
+    }
+
+    public void setRadiusKm(Double radiusKm) {
+        this.radiusKm = radiusKm;
+    }
+
+    public Double getMinLatitude() {
+        return minLatitude;
+    }
+
+    public void setMinLatitude(Double minLatitude) {
+        this.minLatitude = minLatitude;
+    }
+
+    public Double getMaxLatitude() {
+        return maxLatitude;
+    }
+
+    public void setMaxLatitude(Double maxLatitude) {
+        this.maxLatitude = maxLatitude;
+    }
+
+    public Double getMinLongitude() {
+        return minLongitude;
+    }
+
+    public void setMinLongitude(Double minLongitude) {
+        this.minLongitude = minLongitude;
+    }
+
+    public Double getMaxLongitude() {
+        return maxLongitude;
+    }
+
+    public void setMaxLongitude(Double maxLongitude) {
+        this.maxLongitude = maxLongitude;
+    }
+
     public PropertyType getType() {
         return type;
     }
@@ -149,4 +246,52 @@ public class ListingFilterDTO {
     public void setExternalOnly(Boolean externalOnly) {
         this.externalOnly = externalOnly;
     }
+
+    public Integer getMinPricePerM2() {
+        return minPricePerM2;
+    }
+
+    public void setMinPricePerM2(Integer minPricePerM2) {
+        this.minPricePerM2 = minPricePerM2;
+    }
+
+    public Integer getMaxPricePerM2() {
+        return maxPricePerM2;
+    }
+
+    public void setMaxPricePerM2(Integer maxPricePerM2) {
+        this.maxPricePerM2 = maxPricePerM2;
+    }
+
+    public Integer getMinSize() {
+        return minSize;
+    }
+
+    public void setMinSize(Integer minSize) {
+        this.minSize = minSize;
+    }
+
+    public Integer getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(Integer maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public ListingStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ListingStatus status) {
+        this.status = status;
+    }
+
+    public RentalDuration getRentalDuration() {
+        return rentalDuration;
+    }
+
+    public void setRentalDuration(RentalDuration rentalDuration) {
+        this.rentalDuration = rentalDuration;
+    }
 }
@@ -0,0 +1,46 @@
+package gr.hua.dit.dras.dto;
+
+/* imports */
+import java.time.LocalDate;
+
+/**
+ * One week of the rent trend: median asking price and price per m² over all observations
+ * of that week, starting on Monday.
+ */
+public class PriceTrendDTO {
+
+    private final LocalDate week;
+    private final long observations;
+    private final long listings;
+    private final double medianPrice;
+    private final double medianPricePerM2;
+
+    public PriceTrendDTO(LocalDate week, long observations, long listings,
+                         double medianPrice, double medianPricePerM2) {
+        this.week = week;
+        this.observations = observations;
+        this.listings = listings;
+        this.medianPrice = medianPrice;
+        this.medianPricePerM2 = medianPricePerM2;
+    }
+
+    public LocalDate getWeek() {
+        return week;
+    }
+
+    public long getObservations() {
+        return observations;
+    }
+
+    public long getListings() {
+        return listings;
+    }
+
+    public double getMedianPrice() {
+        return medianPrice;
+    }
+
+    public double getMedianPricePerM2() {
+        return medianPricePerM2;
+    }
+}
@@ -0,0 +1,39 @@
+package gr.hua.dit.dras.dto;
+
+/* imports */
+import gr.hua.dit.dras.entities.SavedSearch;
+import java.time.Instant;
+
+/**
+ * A saved search as returned by the API, with its criteria as a filter.
+ */
+public class SavedSearchDTO {
+
+    private final Integer id;
+    private final String name;
+    private final ListingFilterDTO criteria;
+    private final Instant createdAt;
+
+    public SavedSearchDTO(SavedSearch search) {
+        this.id = search.getId();
+        this.name = search.getName();
+        this.criteria = search.toFilter();
+        this.createdAt = search.getCreatedAt();
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ListingFilterDTO getCriteria() {
+        return criteria;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
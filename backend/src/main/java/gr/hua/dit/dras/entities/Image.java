@@ -0,0 +1,65 @@
+package gr.hua.dit.dras.entities;
+
+/* imports */
+import jakarta.persistence.*;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * An image URL, stored once however many listings show it.
+ * Looked up by the SHA-256 of the URL, which is what the unique index covers.
+ */
+@Entity
+@Table(name = "images", uniqueConstraints = @UniqueConstraint(name = "uk_images_url_hash", columnNames = "url_hash"))
+public class Image {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "url_hash", nullable = false, length = 64, updatable = false)
+    private String urlHash;
+
+    @Column(name = "url", nullable = false, length = 1000, updatable = false)
+    private String url;
+
+    public Image() {
+    }
+
+    public Image(String url) {
+        this.url = url;
+        this.urlHash = hash(url);
+    }
+
+    /**
+     * Hex SHA-256 of the UTF-8 URL; matches {@code encode(sha256(convert_to(url, 'UTF8')), 'hex')}.
+     */
+    public static String hash(String url) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(url.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUrlHash() {
+        return urlHash;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    @Override
+    public String toString() {
+        return url;
+    }
+}
@@ -0,0 +1,66 @@
+package gr.hua.dit.dras.entities;
+
+/* imports */
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * An external listing record that could not be imported, kept with the
+ * reason and its payload so it can be inspected and resubmitted.
+ */
+@Entity
+@Table(name = "import_dead_letters",
+        indexes = @Index(name = "idx_import_dead_letters_created_at", columnList = "created_at"))
+public class ImportDeadLetter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "source_url", length = 500)
+    private String sourceUrl;
+
+    @Column(name = "reason", nullable = false, length = 2000)
+    private String reason;
+
+    @Column(name = "payload", columnDefinition = "text")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public ImportDeadLetter() {
+    }
+
+    public ImportDeadLetter(String sourceUrl, String reason, String payload) {
+        this.sourceUrl = truncate(sourceUrl, 500);
+        this.reason = truncate(reason == null ? "Unknown error" : reason, 2000);
+        this.payload = payload;
+        this.createdAt = Instant.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getSourceUrl() {
+        return sourceUrl;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    private static String truncate(String value, int length) {
+        return value == null || value.length() <= length ? value : value.substring(0, length);
+    }
+}
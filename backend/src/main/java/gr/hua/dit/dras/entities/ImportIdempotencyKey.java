@@ -0,0 +1,62 @@
+package gr.hua.dit.dras.entities;
+
+/* imports */
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * An idempotency key sent with an import request, and the response of the import once it
+ * completed. A key is claimed before the import runs, so a retry that arrives meanwhile
+ * is told the import is still in progress instead of running it a second time.
+ */
+@Entity
+@Table(name = "import_idempotency_keys",
+        indexes = @Index(name = "idx_import_idempotency_keys_completed_at", columnList = "completed_at"))
+public class ImportIdempotencyKey {
+
+    public enum Status {
+        IN_PROGRESS, COMPLETED
+    }
+
+    public static final int MAX_KEY_LENGTH = 200;
+
+    @Id
+    @Column(name = "idempotency_key", length = MAX_KEY_LENGTH)
+    private String key;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status;
+
+    @Column(name = "response", columnDefinition = "text")
+    private String response;
+
+    @Column(name = "claimed_at", nullable = false)
+    private Instant claimedAt;
+
+    @Column(name = "completed_at")
+    private Instant completedAt;
+
+    public ImportIdempotencyKey() {
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getResponse() {
+        return response;
+    }
+
+    public Instant getClaimedAt() {
+        return claimedAt;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+}
@@ -0,0 +1,58 @@
+package gr.hua.dit.dras.entities;
+
+/* imports */
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * A scraper sending delta imports. The watermark is the point up to which its changes
+ * have been applied; the next delta must start from it. The source owns the external
+ * listings whose source URL starts with its prefix.
+ */
+@Entity
+@Table(name = "import_sources")
+public class ImportSource {
+
+    @Id
+    @Column(name = "name", length = 100)
+    private String name;
+
+    @Column(name = "url_prefix", nullable = false, length = 500)
+    private String urlPrefix;
+
+    @Column(name = "watermark")
+    private Instant watermark;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    public ImportSource() {
+    }
+
+    public ImportSource(String name, String urlPrefix) {
+        this.name = name;
+        this.urlPrefix = urlPrefix;
+        this.updatedAt = Instant.now();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getUrlPrefix() {
+        return urlPrefix;
+    }
+
+    public Instant getWatermark() {
+        return watermark;
+    }
+
+    public void advanceTo(Instant watermark) {
+        this.watermark = watermark;
+        this.updatedAt = Instant.now();
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
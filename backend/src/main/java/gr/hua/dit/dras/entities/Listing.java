@@ -5,15 +5,27 @@ import gr.hua.dit.dras.model.enums.ListingStatus;
 import gr.hua.dit.dras.model.enums.PropertyType;
 import gr.hua.dit.dras.model.enums.RentalDuration;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import jakarta.validation.constraints.*;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 @Entity
-@Table(name = "listings")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "listings")
+@Table(name = "listings", indexes = {
+        /* Keyset pagination order */
+        @Index(name = "idx_listings_updated_at_id", columnList = "updated_at, id"),
+        /* Bounding-box prefilter of radius searches */
+        @Index(name = "idx_listings_lat_lon", columnList = "latitude, longitude"),
+        @Index(name = "idx_listings_municipality", columnList = "municipality")
+})
 public class Listing {
 
     @Id
@@ -55,6 +67,21 @@ public class Listing {
     @Column(nullable = false)
     private String address;
 
+    /* Geocoded from the address through the local gazetteer */
+    @Column(name = "latitude")
+    private Double latitude;
+
+    @Column(name = "longitude")
+    private Double longitude;
+
+    @Size(max = 100)
+    @Column(name = "municipality", length = 100)
+    private String municipality;
+
+    @Size(max = 100)
+    @Column(name = "district", length = 100)
+    private String district;
+
     @NotNull
     @Min(5)
     @Max(1000)
@@ -78,25 +105,32 @@ public class Listing {
     @Column(name = "source_url",unique = true, length = 500)
     private String sourceUrl;
 
+    /* Fingerprint of the imported content, see ListingFingerprint */
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 20)
     private ListingStatus status = ListingStatus.PENDING;
 
-    @ElementCollection
-    @CollectionTable(
-            name = "listing_images",
-            joinColumns = @JoinColumn(name = "listing_id")
+    /* Images are shared: the link table holds the order, the images table each URL once */
+    @ManyToMany
+    @JoinTable(
+            name = "listing_image_links",
+            joinColumns = @JoinColumn(name = "listing_id"),
+            inverseJoinColumns = @JoinColumn(name = "image_id"),
+            uniqueConstraints = @UniqueConstraint(name = "uk_listing_image_links", columnNames = {"listing_id", "image_id"})
     )
-    @Column(name = "image_url", length = 1000)
-    private List<String> images = new ArrayList<>();
+    @OrderColumn(name = "image_order")
+    private List<Image> images = new ArrayList<>();
 
     @Column(nullable = false)
     private boolean external = false;
 
-    @Column(nullable = false, updatable = false)
+    @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
 
-    @Column(nullable = false)
+    @Column(name = "updated_at", nullable = false)
     private Instant updatedAt;
 
     /* Listing-Owner relationship */
@@ -234,6 +268,38 @@ public class Listing {
         this.address = address;
     }
 
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    public String getMunicipality() {
+        return municipality;
+    }
+
+    public void setMunicipality(String municipality) {
+        this.municipality = municipality;
+    }
+
+    public String getDistrict() {
+        return district;
+    }
+
+    public void setDistrict(String district) {
+        this.district = district;
+    }
+
     public Integer getSizeM2() {
         return sizeM2;
     }
@@ -274,11 +340,34 @@ public class Listing {
         this.sourceUrl = sourceUrl;
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    /**
+     * Returns the image URLs in display order.
+     */
     public List<String> getImages() {
-        return images;
+        return images.stream().map(Image::getUrl).toList();
     }
 
+    /**
+     * Replaces the images by URL. The new images are not yet stored; persisting
+     * code attaches the stored ones through {@link #setImageRefs}.
+     */
     public void setImages(List<String> images) {
+        this.images = images.stream().map(Image::new).collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    public List<Image> getImageRefs() {
+        return images;
+    }
+
+    public void setImageRefs(List<Image> images) {
         this.images = images;
     }
 
@@ -414,7 +503,7 @@ public class Listing {
                 ", rentalDuration=" + rentalDuration +
                 ", sourceUrl='" + sourceUrl + '\'' +
                 ", status=" + status +
-                ", images=" + images +
+                ", images=" + getImages() +
                 ", external=" + external +
                 ", createdAt=" + createdAt +
                 ", updatedAt=" + updatedAt +
@@ -433,6 +522,16 @@ public class Listing {
         this.description = safeTrim(this.description);
         this.address = safeTrim(this.address);
         this.sourceUrl = safeTrim(this.sourceUrl);
+
+        /* Edits made through the entity no longer match the imported content */
+        this.contentHash = null;
+
+        /* Timestamps, truncated to the database precision so that page cursors compare exactly */
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        if (this.createdAt == null) {
+            this.createdAt = now;
+        }
+        this.updatedAt = now;
     }
 
     private String safeTrim(String s) {
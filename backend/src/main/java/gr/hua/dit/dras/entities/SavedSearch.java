@@ -0,0 +1,150 @@
+package gr.hua.dit.dras.entities;
+
+/* imports */
+import gr.hua.dit.dras.dto.ListingFilterDTO;
+import gr.hua.dit.dras.model.enums.ListingStatus;
+import gr.hua.dit.dras.model.enums.PropertyType;
+import gr.hua.dit.dras.model.enums.RentalDuration;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import java.time.Instant;
+
+/**
+ * Filter criteria a tenant asked to be alerted about.
+ * Only criteria the listing index can evaluate are stored, so a new
+ * listing can be matched against saved searches without a query.
+ */
+@Entity
+@Table(name = "saved_searches")
+public class SavedSearch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Integer id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "tenant_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Tenant tenant;
+
+    @NotBlank
+    @Size(max = 100)
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 30)
+    private PropertyType propertyType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private RentalDuration rentalDuration;
+
+    private Integer minPrice;
+    private Integer maxPrice;
+    private Integer minPricePerM2;
+    private Integer maxPricePerM2;
+    private Integer minSize;
+    private Integer maxSize;
+    private Integer minRooms;
+    private Integer maxRooms;
+
+    @Column(length = 100)
+    private String municipality;
+
+    @Column(length = 100)
+    private String district;
+
+    private Double latitude;
+    private Double longitude;
+    private Double radiusKm;
+
+    @Column(nullable = false)
+    private boolean externalOnly = false;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    public SavedSearch() {
+    }
+
+    /**
+     * Copies the storable criteria of a filter.
+     */
+    public SavedSearch(Tenant tenant, String name, ListingFilterDTO filter) {
+        this.tenant = tenant;
+        this.name = name;
+        this.propertyType = filter.getType();
+        this.rentalDuration = filter.getRentalDuration();
+        this.minPrice = filter.getMinPrice();
+        this.maxPrice = filter.getMaxPrice();
+        this.minPricePerM2 = filter.getMinPricePerM2();
+        this.maxPricePerM2 = filter.getMaxPricePerM2();
+        this.minSize = filter.getMinSize();
+        this.maxSize = filter.getMaxSize();
+        this.minRooms = filter.getMinBedrooms();
+        this.maxRooms = filter.getMaxBedrooms();
+        this.municipality = filter.getMunicipality();
+        this.district = filter.getDistrict();
+        this.latitude = filter.getLatitude();
+        this.longitude = filter.getLongitude();
+        this.radiusKm = filter.getRadiusKm();
+        this.externalOnly = Boolean.TRUE.equals(filter.getExternalOnly());
+    }
+
+    @PrePersist
+    private void onCreate() {
+        if (createdAt == null) {
+            createdAt = Instant.now();
+        }
+    }
+
+    /**
+     * The stored criteria as a filter; alerts only ever cover approved listings.
+     */
+    public ListingFilterDTO toFilter() {
+        ListingFilterDTO filter = new ListingFilterDTO();
+        filter.setStatus(ListingStatus.APPROVED);
+        filter.setType(propertyType);
+        filter.setRentalDuration(rentalDuration);
+        filter.setMinPrice(minPrice);
+        filter.setMaxPrice(maxPrice);
+        filter.setMinPricePerM2(minPricePerM2);
+        filter.setMaxPricePerM2(maxPricePerM2);
+        filter.setMinSize(minSize);
+        filter.setMaxSize(maxSize);
+        filter.setMinBedrooms(minRooms);
+        filter.setMaxBedrooms(maxRooms);
+        filter.setMunicipality(municipality);
+        filter.setDistrict(district);
+        filter.setLatitude(latitude);
+        filter.setLongitude(longitude);
+        filter.setRadiusKm(radiusKm);
+        filter.setExternalOnly(externalOnly ? Boolean.TRUE : null);
+        return filter;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public Tenant getTenant() {
+        return tenant;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,65 @@
+package gr.hua.dit.dras.entities;
+
+/* imports */
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import java.time.Instant;
+
+/**
+ * Queued notification that a listing matched a saved search.
+ * A listing alerts each saved search at most once; the listing is kept as a plain
+ * id so that deleting it never has to wait for the queue.
+ */
+@Entity
+@Table(name = "saved_search_alerts",
+        uniqueConstraints = @UniqueConstraint(name = "uk_saved_search_alert", columnNames = {"saved_search_id", "listing_id"}),
+        indexes = @Index(name = "idx_saved_search_alerts_pending", columnList = "sent_at, id"))
+public class SavedSearchAlert {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "saved_search_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private SavedSearch savedSearch;
+
+    @Column(name = "listing_id", nullable = false)
+    private Integer listingId;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "sent_at")
+    private Instant sentAt;
+
+    public SavedSearchAlert() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public SavedSearch getSavedSearch() {
+        return savedSearch;
+    }
+
+    public Integer getListingId() {
+        return listingId;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getSentAt() {
+        return sentAt;
+    }
+
+    public void setSentAt(Instant sentAt) {
+        this.sentAt = sentAt;
+    }
+}
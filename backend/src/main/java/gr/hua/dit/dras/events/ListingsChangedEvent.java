@@ -0,0 +1,57 @@
+package gr.hua.dit.dras.events;
+
+/* imports */
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Published whenever listings are written or removed, so that in-memory
+ * structures derived from the listings table can be brought up to date.
+ * Listeners receive it once the surrounding transaction has committed.
+ */
+public class ListingsChangedEvent {
+
+    private final Set<Integer> updatedIds;
+    private final Set<Integer> removedIds;
+
+    public ListingsChangedEvent(Collection<Integer> updatedIds, Collection<Integer> removedIds) {
+        this.updatedIds = Set.copyOf(updatedIds);
+        this.removedIds = Set.copyOf(removedIds);
+    }
+
+    public static ListingsChangedEvent updated(Collection<Integer> ids) {
+        return new ListingsChangedEvent(ids, Set.of());
+    }
+
+    public static ListingsChangedEvent updated(Integer id) {
+        return updated(Set.of(id));
+    }
+
+    public static ListingsChangedEvent removed(Collection<Integer> ids) {
+        return new ListingsChangedEvent(Set.of(), ids);
+    }
+
+    public static ListingsChangedEvent removed(Integer id) {
+        return removed(Set.of(id));
+    }
+
+    public Set<Integer> getUpdatedIds() {
+        return updatedIds;
+    }
+
+    public Set<Integer> getRemovedIds() {
+        return removedIds;
+    }
+
+    public boolean isEmpty() {
+        return updatedIds.isEmpty() && removedIds.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "ListingsChangedEvent{" +
+                "updatedIds=" + updatedIds +
+                ", removedIds=" + removedIds +
+                '}';
+    }
+}
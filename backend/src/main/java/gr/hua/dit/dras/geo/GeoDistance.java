@@ -0,0 +1,39 @@
+package gr.hua.dit.dras.geo;
+
+/**
+ * Distance helpers on the equirectangular approximation.
+ * At city scale (tens of km) the error is far below one percent, and the same
+ * formula can be written as plain arithmetic in SQL, so the in-memory index
+ * and the database agree on which listings are inside a radius.
+ */
+public final class GeoDistance {
+
+    /* Kilometres per degree of latitude, on a sphere of radius 6371 km */
+    public static final double KM_PER_DEGREE = 6371.0 * Math.PI / 180.0;
+
+    private GeoDistance() {
+    }
+
+    /**
+     * Distance in km between a center and a point, scaling longitude at the center latitude.
+     */
+    public static double distanceKm(double centerLat, double centerLon, double lat, double lon) {
+        double dy = (lat - centerLat) * KM_PER_DEGREE;
+        double dx = (lon - centerLon) * KM_PER_DEGREE * Math.cos(Math.toRadians(centerLat));
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * Half-height, in degrees, of the bounding box of a circle.
+     */
+    public static double latitudeSpan(double radiusKm) {
+        return radiusKm / KM_PER_DEGREE;
+    }
+
+    /**
+     * Half-width, in degrees, of the bounding box of a circle centred at the given latitude.
+     */
+    public static double longitudeSpan(double centerLat, double radiusKm) {
+        return radiusKm / (KM_PER_DEGREE * Math.cos(Math.toRadians(centerLat)));
+    }
+}
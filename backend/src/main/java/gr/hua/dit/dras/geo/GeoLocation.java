@@ -0,0 +1,35 @@
+package gr.hua.dit.dras.geo;
+
+/**
+ * A geocoded place: coordinates plus the administrative areas it belongs to.
+ */
+public class GeoLocation {
+
+    private final double latitude;
+    private final double longitude;
+    private final String municipality;
+    private final String district;
+
+    public GeoLocation(double latitude, double longitude, String municipality, String district) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.municipality = municipality;
+        this.district = district;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public String getMunicipality() {
+        return municipality;
+    }
+
+    public String getDistrict() {
+        return district;
+    }
+}
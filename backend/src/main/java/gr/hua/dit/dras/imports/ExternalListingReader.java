@@ -0,0 +1,91 @@
+package gr.hua.dit.dras.imports;
+
+/* imports */
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gr.hua.dit.dras.dto.ExternalListingDTO;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Pull-parses external listings one at a time from a JSON array or from
+ * newline-delimited JSON, so only the current record is held in memory.
+ */
+public class ExternalListingReader implements Closeable {
+
+    private final ObjectMapper objectMapper;
+    private final JsonParser parser;
+
+    private boolean started = false;
+    private boolean inArray = false;
+    private int position = 0;
+
+    public ExternalListingReader(ObjectMapper objectMapper, InputStream input) throws IOException {
+        this.objectMapper = objectMapper;
+        this.parser = objectMapper.getFactory().createParser(input);
+    }
+
+    /**
+     * Returns the next listing, or null once the input is exhausted.
+     * Throws InvalidRecordException for a record that does not bind to a listing,
+     * after which reading can go on, and IllegalArgumentException on malformed input.
+     */
+    public ExternalListingDTO next() throws IOException {
+        try {
+            JsonToken token = parser.nextToken();
+
+            /* A leading array wraps the records, otherwise they follow each other as root values */
+            if (!started) {
+                started = true;
+                if (token == JsonToken.START_ARRAY) {
+                    inArray = true;
+                    token = parser.nextToken();
+                }
+            }
+
+            if (token == null || (inArray && token == JsonToken.END_ARRAY)) {
+                return null;
+            }
+
+            /* Read as a tree first, so a record that fails to bind is consumed whole and kept */
+            position++;
+            JsonNode record = objectMapper.readTree(parser);
+            if (!record.isObject()) {
+                throw new InvalidRecordException("Expected a listing object at record " + position
+                        + " but found " + record.getNodeType(), record.toString(), null);
+            }
+            return bind(record);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed input at record " + position + ": "
+                    + e.getOriginalMessage(), e);
+        }
+    }
+
+    private ExternalListingDTO bind(JsonNode record) {
+        try {
+            return objectMapper.treeToValue(record, ExternalListingDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new InvalidRecordException("Invalid listing at record " + position + ": "
+                    + e.getOriginalMessage(), record.toString(), e);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRecordException("Invalid listing at record " + position + ": "
+                    + e.getMessage(), record.toString(), e);
+        }
+    }
+
+    /**
+     * Returns the number of records read so far.
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
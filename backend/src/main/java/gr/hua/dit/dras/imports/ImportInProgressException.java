@@ -0,0 +1,13 @@
+package gr.hua.dit.dras.imports;
+
+/**
+ * An import request whose idempotency key belongs to an import that is still running.
+ */
+public class ImportInProgressException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ImportInProgressException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,84 @@
+package gr.hua.dit.dras.imports;
+
+/* imports */
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * An import submitted for background processing. The payload is spooled
+ * to a file so the submitting request can return before it is processed.
+ */
+public class ImportJob {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private final String id = UUID.randomUUID().toString();
+    private final Instant submittedAt = Instant.now();
+    private final Path payload;
+    private final PayloadFormat format;
+
+    private volatile Status status = Status.QUEUED;
+    private volatile ImportProgress progress;
+    private volatile String error;
+
+    public ImportJob(Path payload, PayloadFormat format) {
+        this.payload = payload;
+        this.format = format;
+    }
+
+    public void start() {
+        progress = new ImportProgress();
+        status = Status.RUNNING;
+    }
+
+    public void complete() {
+        progress.finish();
+        status = Status.COMPLETED;
+    }
+
+    public void fail(String error) {
+        if (progress != null) {
+            progress.finish();
+        }
+        this.error = error;
+        status = Status.FAILED;
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Path getPayload() {
+        return payload;
+    }
+
+    public PayloadFormat getFormat() {
+        return format;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the progress counters, or null while the job is queued.
+     */
+    public ImportProgress getProgress() {
+        return progress;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,293 @@
+package gr.hua.dit.dras.imports;
+
+/* imports */
+import gr.hua.dit.dras.dto.ExternalListingDTO;
+import gr.hua.dit.dras.entities.Listing;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Staged import: parse → validate/map → dedupe by source URL → write.
+ * One thread parses, a configurable number map, and a configurable number write.
+ * Stages are joined by bounded queues, so a slow stage holds the ones before it back
+ * instead of letting records pile up in memory.
+ * Records are routed to writers by source URL hash: a listing is always written by
+ * the same writer, so writers never contend for the same row, and each writer keeps
+ * the last occurrence of a URL among the records it has pending. An older record that
+ * arrives after its URL was flushed is left to the writes, which never replace a listing
+ * with one scraped before it, so the writers keep no state beyond their pending chunk.
+ */
+public class ImportPipeline {
+
+    /**
+     * The work done at each stage; called concurrently from the stage threads.
+     */
+    public interface Stages {
+
+        /**
+         * Validates and maps a record; throws IllegalArgumentException if it is invalid.
+         */
+        Listing map(ExternalListingDTO dto);
+
+        /* A record that failed validation or mapping */
+        void rejected(ExternalListingDTO dto, String reason);
+
+        /* A record the reader could not bind */
+        void unreadable(InvalidRecordException e);
+
+        /* A record replaced by a later one with the same source URL */
+        void superseded(ExternalListingDTO dto);
+
+        /**
+         * Writes a chunk of distinct listings; called by one writer thread at a time per partition.
+         */
+        void write(List<ExternalListingDTO> dtos, List<Listing> listings);
+    }
+
+    private final int mappers;
+    private final int writers;
+    private final int queueCapacity;
+    private final int chunkSize;
+
+    public ImportPipeline(int mappers, int writers, int queueCapacity, int chunkSize) {
+        if (mappers < 1 || writers < 1 || queueCapacity < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("Pipeline sizes must be positive");
+        }
+        this.mappers = mappers;
+        this.writers = writers;
+        this.queueCapacity = queueCapacity;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Runs the reader through the stages and returns once every record is written.
+     * Rethrows the first failure of the parse or write stage; the other stages still
+     * drain what was already read, so chunks before the failure are kept.
+     */
+    public void run(ExternalListingReader reader, Stages stages) throws IOException {
+        BlockingQueue<Record> parsed = new ArrayBlockingQueue<>(queueCapacity);
+        List<BlockingQueue<Record>> partitions = new ArrayList<>(writers);
+        for (int i = 0; i < writers; i++) {
+            partitions.add(new ArrayBlockingQueue<>(queueCapacity));
+        }
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicInteger activeMappers = new AtomicInteger(mappers);
+        List<Thread> threads = new ArrayList<>(mappers + writers);
+
+        for (int i = 0; i < writers; i++) {
+            BlockingQueue<Record> partition = partitions.get(i);
+            threads.add(Thread.ofPlatform().name("import-write-" + i)
+                    .start(() -> write(partition, stages, failure)));
+        }
+        for (int i = 0; i < mappers; i++) {
+            threads.add(Thread.ofPlatform().name("import-map-" + i)
+                    .start(() -> map(parsed, partitions, stages, activeMappers, failure)));
+        }
+
+        /* The parse stage runs on the calling thread */
+        try {
+            parse(reader, parsed, stages, failure);
+        } catch (IOException | RuntimeException e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            for (int i = 0; i < mappers; i++) {
+                putUninterruptibly(parsed, Record.END);
+            }
+        }
+
+        for (Thread thread : threads) {
+            joinUninterruptibly(thread);
+        }
+
+        Throwable error = failure.get();
+        if (error instanceof IOException e) {
+            throw e;
+        }
+        if (error instanceof RuntimeException e) {
+            throw e;
+        }
+        if (error != null) {
+            throw new IllegalStateException(error);
+        }
+    }
+
+    private void parse(ExternalListingReader reader, BlockingQueue<Record> parsed, Stages stages,
+                       AtomicReference<Throwable> failure) throws IOException {
+        long position = 0;
+
+        /* Stops reading once a later stage failed */
+        while (failure.get() == null) {
+            ExternalListingDTO dto;
+            try {
+                dto = reader.next();
+            } catch (InvalidRecordException e) {
+                stages.unreadable(e);
+                continue;
+            }
+            if (dto == null) {
+                return;
+            }
+            putUninterruptibly(parsed, new Record(position++, dto, null));
+        }
+    }
+
+    private void map(BlockingQueue<Record> parsed, List<BlockingQueue<Record>> partitions,
+                     Stages stages, AtomicInteger activeMappers, AtomicReference<Throwable> failure) {
+        try {
+            while (true) {
+                Record record = takeUninterruptibly(parsed);
+                if (record == Record.END) {
+                    return;
+                }
+
+                /* Records are still taken after a failure, so that the parser never blocks */
+                try {
+                    Listing listing;
+                    try {
+                        listing = stages.map(record.dto);
+                    } catch (IllegalArgumentException e) {
+                        stages.rejected(record.dto, e.getMessage());
+                        continue;
+                    }
+
+                    Record mapped = new Record(record.position, record.dto, listing);
+                    putUninterruptibly(partitions.get(Math.floorMod(mapped.key().hashCode(), partitions.size())), mapped);
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+        } finally {
+            /* The last mapper to finish tells every writer that no more records will come */
+            if (activeMappers.decrementAndGet() == 0) {
+                partitions.forEach(partition -> putUninterruptibly(partition, Record.END));
+            }
+        }
+    }
+
+    private void write(BlockingQueue<Record> partition, Stages stages, AtomicReference<Throwable> failure) {
+        Map<String, Record> pending = new HashMap<>();
+
+        while (true) {
+            Record record = takeUninterruptibly(partition);
+            boolean end = record == Record.END;
+
+            if (!end) {
+                /* Mappers can reorder records, so the original position decides which one is the latest */
+                Record previous = pending.get(record.key());
+                if (previous == null || previous.position < record.position) {
+                    pending.put(record.key(), record);
+                    if (previous != null) {
+                        stages.superseded(previous.dto);
+                    }
+                } else {
+                    stages.superseded(record.dto);
+                }
+            }
+
+            if ((end || pending.size() >= chunkSize) && !pending.isEmpty()) {
+                List<Record> chunk = new ArrayList<>(pending.values());
+                pending.clear();
+
+                /* After a failure the partition is still drained, so that mappers never block on it */
+                if (failure.get() == null) {
+                    try {
+                        writeChunk(chunk, stages);
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            }
+
+            if (end) {
+                return;
+            }
+        }
+    }
+
+    private static void writeChunk(List<Record> chunk, Stages stages) {
+        chunk.sort(Comparator.comparingLong(record -> record.position));
+
+        List<ExternalListingDTO> dtos = new ArrayList<>(chunk.size());
+        List<Listing> listings = new ArrayList<>(chunk.size());
+        for (Record record : chunk) {
+            dtos.add(record.dto);
+            listings.add(record.listing);
+        }
+        stages.write(dtos, listings);
+    }
+
+    private static <T> void putUninterruptibly(BlockingQueue<T> queue, T value) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(value);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static <T> T takeUninterruptibly(BlockingQueue<T> queue) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return queue.take();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void joinUninterruptibly(Thread thread) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                thread.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Record {
+
+        private static final Record END = new Record(-1, null, null);
+
+        private final long position;
+        private final ExternalListingDTO dto;
+        private final Listing listing;
+
+        private Record(long position, ExternalListingDTO dto, Listing listing) {
+            this.position = position;
+            this.dto = dto;
+            this.listing = listing;
+        }
+
+        private String key() {
+            return listing.getSourceUrl().trim();
+        }
+    }
+}
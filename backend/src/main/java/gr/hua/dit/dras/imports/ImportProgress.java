@@ -0,0 +1,110 @@
+package gr.hua.dit.dras.imports;
+
+/* imports */
+import gr.hua.dit.dras.repositories.ListingBulkRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Running counters of an import, updated by the importing thread
+ * and safe to read from any other while the import is in progress.
+ */
+public class ImportProgress {
+
+    private final Instant startedAt = Instant.now();
+
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong inserted = new AtomicLong();
+    private final AtomicLong updated = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong removed = new AtomicLong();
+
+    private volatile Instant finishedAt;
+
+    /**
+     * Records a committed chunk of the given size.
+     */
+    public void chunkCommitted(int size, ListingBulkRepository.UpsertResult result) {
+        int written = result.getInsertedIds().size() + result.getUpdatedIds().size();
+        processed.addAndGet(size);
+        inserted.addAndGet(result.getInsertedIds().size());
+        updated.addAndGet(result.getUpdatedIds().size());
+        skipped.addAndGet(size - written);
+    }
+
+    public void recordSkipped(int count) {
+        processed.addAndGet(count);
+        skipped.addAndGet(count);
+    }
+
+    public void recordFailed(int count) {
+        processed.addAndGet(count);
+        failed.addAndGet(count);
+    }
+
+    /**
+     * Records tombstones, of which the given number matched a stored listing.
+     */
+    public void recordRemoved(int tombstones, int matched) {
+        processed.addAndGet(tombstones);
+        removed.addAndGet(matched);
+        skipped.addAndGet(tombstones - matched);
+    }
+
+    public void finish() {
+        finishedAt = Instant.now();
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getProcessed() {
+        return processed.get();
+    }
+
+    public long getInserted() {
+        return inserted.get();
+    }
+
+    public long getUpdated() {
+        return updated.get();
+    }
+
+    /**
+     * Listings whose content was unchanged; duplicate source URLs within a chunk count here too.
+     */
+    public long getSkipped() {
+        return skipped.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public long getRemoved() {
+        return removed.get();
+    }
+
+    /**
+     * Listings processed per second since the start, up to the end if finished.
+     */
+    public double getRate() {
+        Instant end = finishedAt == null ? Instant.now() : finishedAt;
+        long millis = Math.max(1, Duration.between(startedAt, end).toMillis());
+        return processed.get() * 1000.0 / millis;
+    }
+
+    @Override
+    public String toString() {
+        return processed + " processed, " + inserted + " inserted, " + updated + " updated, "
+                + skipped + " skipped, " + failed + " failed"
+                + (removed.get() == 0 ? "" : ", " + removed + " removed");
+    }
+}
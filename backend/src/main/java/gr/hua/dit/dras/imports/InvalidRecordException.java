@@ -0,0 +1,24 @@
+package gr.hua.dit.dras.imports;
+
+/**
+ * A well-formed record that could not be bound to an external listing.
+ * The reader stays positioned after it, so reading can continue.
+ */
+public class InvalidRecordException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String payload;
+
+    public InvalidRecordException(String message, String payload, Throwable cause) {
+        super(message, cause);
+        this.payload = payload;
+    }
+
+    /**
+     * Returns the record as it was received.
+     */
+    public String getPayload() {
+        return payload;
+    }
+}
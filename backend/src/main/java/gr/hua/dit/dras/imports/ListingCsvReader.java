@@ -0,0 +1,240 @@
+package gr.hua.dit.dras.imports;
+
+/* imports */
+import gr.hua.dit.dras.dto.ExternalListingDTO;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Reads the listing snapshots written by the Rentola scraper ({@code rentola_athens_listings.csv})
+ * one row at a time. Columns are matched by header name, so their order and any extra columns
+ * the scraper adds do not matter; only {@code url} is required.
+ * Values are parsed the way the scraper parses them: Greek money and size formats,
+ * and the image list as written by pandas.
+ */
+public class ListingCsvReader implements Closeable {
+
+    /* Scraper column names, including the Greek detail labels it keeps as-is */
+    private static final Map<String, BiConsumer<ExternalListingDTO, String>> COLUMNS = Map.ofEntries(
+            Map.entry("url", ExternalListingDTO::setSourceUrl),
+            Map.entry("date_scraped", (dto, value) -> dto.setDateScraped(parseDate(value))),
+            Map.entry("title", ExternalListingDTO::setTitle),
+            Map.entry("subtitle", ExternalListingDTO::setSubtitle),
+            Map.entry("description", ExternalListingDTO::setDescription),
+            Map.entry("address", ExternalListingDTO::setAddress),
+            Map.entry("price", (dto, value) -> dto.setPrice(parseNumber(value))),
+            Map.entry("price_per_m2", (dto, value) -> dto.setPricePerM2(parseNumber(value))),
+            Map.entry("Μέγεθος", (dto, value) -> dto.setSizeM2(parseNumber(value))),
+            Map.entry("Δωμάτια", (dto, value) -> dto.setRooms(parseNumber(value))),
+            Map.entry("Τύπος_ακινήτου", ExternalListingDTO::setPropertyType),
+            Map.entry("Διάρκεια_ενοικίασης", ExternalListingDTO::setRentalDuration),
+            Map.entry("images", (dto, value) -> dto.setImages(parseImages(value)))
+    );
+
+    private final BufferedReader reader;
+    private final List<BiConsumer<ExternalListingDTO, String>> setters = new ArrayList<>();
+
+    /* Raw text of the record last read, for dead-lettering */
+    private final StringBuilder raw = new StringBuilder(1024);
+    private long position;
+
+    public ListingCsvReader(Reader reader) throws IOException {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader, 64 * 1024);
+
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV input is empty");
+        }
+
+        Map<String, Integer> seen = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).strip();
+            /* pandas writes utf-8-sig, so the first header may start with a byte order mark */
+            if (i == 0 && name.startsWith("\uFEFF")) {
+                name = name.substring(1);
+            }
+            seen.put(name, i);
+            setters.add(COLUMNS.get(name));
+        }
+        if (!seen.containsKey("url")) {
+            throw new IllegalArgumentException("CSV header has no url column");
+        }
+    }
+
+    /**
+     * Returns the next listing, or null at the end of the input.
+     * Throws InvalidRecordException for a row that cannot be bound (reading can continue),
+     * and IllegalArgumentException if the input is not valid CSV.
+     */
+    public ExternalListingDTO next() throws IOException {
+        List<String> values;
+        do {
+            values = readRecord();
+            if (values == null) {
+                return null;
+            }
+        } while (values.size() == 1 && values.get(0).isBlank());
+
+        position++;
+        String payload = raw.toString();
+        if (values.size() != setters.size()) {
+            throw new InvalidRecordException("Record " + position + " has " + values.size()
+                    + " fields, header has " + setters.size(), payload, null);
+        }
+
+        ExternalListingDTO dto = new ExternalListingDTO();
+        for (int i = 0; i < values.size(); i++) {
+            BiConsumer<ExternalListingDTO, String> setter = setters.get(i);
+            String value = values.get(i).strip();
+            if (setter == null || value.isEmpty()) {
+                continue;
+            }
+            try {
+                setter.accept(dto, value);
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                throw new InvalidRecordException("Record " + position + ": " + e.getMessage(), payload, e);
+            }
+        }
+        return dto;
+    }
+
+    /**
+     * Number of data records read so far.
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Reads one RFC 4180 record; quoted fields may span lines and escape quotes by doubling them.
+     */
+    private List<String> readRecord() throws IOException {
+        raw.setLength(0);
+        int c = reader.read();
+        if (c < 0) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        while (true) {
+            if (c < 0) {
+                if (quoted) {
+                    throw new IllegalArgumentException("Malformed input at record " + (position + 1)
+                            + ": unterminated quoted field");
+                }
+                break;
+            }
+            raw.append((char) c);
+
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        raw.append('"');
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                raw.setLength(raw.length() - 1);
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Parses Greek/European numbers as the scraper does ("1.200,50", "1.200", "85 m²", "850.0"),
+     * rounded to a whole number. Returns null if the text holds no number.
+     */
+    static Integer parseNumber(String text) {
+        String s = text.replaceAll("[^\\d.,\\-]", "");
+        if (s.isEmpty()) {
+            return null;
+        }
+
+        if (s.contains(".") && s.contains(",")) {
+            /* Dot for thousands, comma for decimals */
+            s = s.replace(".", "").replace(',', '.');
+        } else if (s.contains(",")) {
+            s = s.replace(',', '.');
+        } else if (s.matches("\\d{1,3}(\\.\\d{3})+")) {
+            /* 1.200 is twelve hundred in Greek listings */
+            s = s.replace(".", "");
+        }
+
+        try {
+            return (int) Math.round(Double.parseDouble(s));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Accepts the scraper's dates (2025-10-24, taken as UTC midnight) and ISO-8601 instants.
+     */
+    static Instant parseDate(String text) {
+        if (text.length() == 10) {
+            return LocalDate.parse(text).atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+        return Instant.parse(text);
+    }
+
+    /**
+     * Parses a pandas-written list ("['https://…/1.jpg', 'https://…/2.jpg']") or a plain
+     * comma-separated list into image URLs.
+     */
+    static List<String> parseImages(String text) {
+        String s = text.strip();
+        if (s.startsWith("[") && s.endsWith("]")) {
+            s = s.substring(1, s.length() - 1);
+        }
+
+        List<String> images = new ArrayList<>();
+        for (String part : s.split(",")) {
+            String url = part.strip();
+            if (url.length() >= 2 && (url.charAt(0) == '\'' || url.charAt(0) == '"')
+                    && url.charAt(url.length() - 1) == url.charAt(0)) {
+                url = url.substring(1, url.length() - 1).strip();
+            }
+            if (!url.isEmpty()) {
+                images.add(url);
+            }
+        }
+        return images;
+    }
+}
@@ -0,0 +1,55 @@
+package gr.hua.dit.dras.imports;
+
+/* imports */
+import gr.hua.dit.dras.entities.Listing;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 over the listing fields an import writes, used to recognise
+ * re-scraped listings whose content did not change.
+ * Strings are trimmed and blanks treated as missing, as the database stores them.
+ */
+public final class ListingFingerprint {
+
+    /* Unit separator, cannot occur in scraped text fields */
+    private static final char SEPARATOR = '\u001F';
+
+    private ListingFingerprint() {
+    }
+
+    public static String of(Listing listing) {
+        StringBuilder content = new StringBuilder(512);
+        append(content, listing.getTitle());
+        append(content, listing.getSubtitle());
+        append(content, listing.getDescription());
+        append(content, listing.getPrice());
+        append(content, listing.getPricePerM2());
+        append(content, listing.getAddress());
+        append(content, listing.getSizeM2());
+        append(content, listing.getRooms());
+        append(content, listing.getPropertyType());
+        append(content, listing.getRentalDuration());
+        append(content, listing.getStatus());
+        for (String image : listing.getImages()) {
+            append(content, image);
+        }
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void append(StringBuilder content, Object value) {
+        if (value instanceof String text) {
+            text = text.trim();
+            value = text.isEmpty() ? null : text;
+        }
+        content.append(value == null ? "" : value).append(SEPARATOR);
+    }
+}
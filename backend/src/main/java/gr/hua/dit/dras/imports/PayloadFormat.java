@@ -0,0 +1,42 @@
+package gr.hua.dit.dras.imports;
+
+/* imports */
+import org.springframework.http.MediaType;
+
+/**
+ * Encodings of external listing payloads. CBOR and Smile carry the same records as JSON
+ * in binary form: numbers and field names are shorter and Smile back-references
+ * repeated names and short strings, so batches are smaller and cheaper to parse.
+ * Each format takes either one array of listings or a sequence of root-level listings.
+ */
+public enum PayloadFormat {
+
+    JSON, CBOR, SMILE;
+
+    /* Newline-delimited JSON, read as a sequence of JSON root values */
+    public static final String NDJSON_TYPE = "application/x-ndjson";
+    public static final String CBOR_TYPE = "application/cbor";
+    public static final String SMILE_TYPE = "application/x-jackson-smile";
+
+    /**
+     * Returns the format of a request content type; JSON when none is given.
+     * Throws IllegalArgumentException for any other type.
+     */
+    public static PayloadFormat forContentType(String contentType) {
+        if (contentType == null || contentType.isBlank()) {
+            return JSON;
+        }
+
+        MediaType type = MediaType.parseMediaType(contentType);
+        if (type.isCompatibleWith(MediaType.APPLICATION_JSON) || type.isCompatibleWith(MediaType.parseMediaType(NDJSON_TYPE))) {
+            return JSON;
+        }
+        if (type.isCompatibleWith(MediaType.parseMediaType(CBOR_TYPE))) {
+            return CBOR;
+        }
+        if (type.isCompatibleWith(MediaType.parseMediaType(SMILE_TYPE))) {
+            return SMILE;
+        }
+        throw new IllegalArgumentException("Unsupported payload type: " + contentType);
+    }
+}
@@ -0,0 +1,231 @@
+package gr.hua.dit.dras.imports;
+
+/* imports */
+import gr.hua.dit.dras.model.enums.PropertyType;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Classifies free-text property types with an Aho-Corasick automaton over a keyword dictionary.
+ * The text is scanned once, whatever the number of keywords, and matching ignores case and
+ * accents. When several keywords occur, the one from the earliest dictionary line wins, so the
+ * result never depends on iteration order.
+ * Dictionary lines have the form {@code TYPE: keyword, keyword}; blank lines and {@code #} comments are skipped.
+ */
+public final class PropertyTypeMatcher {
+
+    private static final Locale GREEK = Locale.forLanguageTag("el");
+
+    /* Case and accent folding of the Basic Multilingual Plane up to Greek Extended; other characters fold to themselves */
+    private static final char[] FOLD = buildFoldTable(0x2000);
+
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+
+    private final PropertyType[] types;
+    private final int[] alphabet;
+    private final int alphabetSize;
+    private final int[][] transitions;
+    private final int[] bestPriority;
+
+    private PropertyTypeMatcher(List<PropertyType> types, List<List<String>> keywords) {
+        this.types = types.toArray(new PropertyType[0]);
+
+        /* Compact alphabet of the characters used by keywords; anything else returns to the root */
+        alphabet = new int[FOLD.length];
+        Arrays.fill(alphabet, -1);
+        int symbols = 0;
+        for (List<String> line : keywords) {
+            for (String keyword : line) {
+                for (char c : keyword.toCharArray()) {
+                    if (alphabet[c] < 0) {
+                        alphabet[c] = symbols++;
+                    }
+                }
+            }
+        }
+        alphabetSize = symbols;
+
+        /* Trie */
+        List<int[]> gotos = new ArrayList<>();
+        List<Integer> outputs = new ArrayList<>();
+        gotos.add(newState(symbols));
+        outputs.add(NO_MATCH);
+
+        for (int priority = 0; priority < keywords.size(); priority++) {
+            for (String keyword : keywords.get(priority)) {
+                int state = 0;
+                for (char c : keyword.toCharArray()) {
+                    int symbol = alphabet[c];
+                    if (gotos.get(state)[symbol] < 0) {
+                        gotos.get(state)[symbol] = gotos.size();
+                        gotos.add(newState(symbols));
+                        outputs.add(NO_MATCH);
+                    }
+                    state = gotos.get(state)[symbol];
+                }
+                outputs.set(state, Math.min(outputs.get(state), priority));
+            }
+        }
+
+        /* Failure links folded into a complete transition table, breadth first */
+        transitions = gotos.toArray(new int[0][]);
+        bestPriority = new int[transitions.length];
+        int[] failure = new int[transitions.length];
+        for (int state = 0; state < transitions.length; state++) {
+            bestPriority[state] = outputs.get(state);
+        }
+
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int symbol = 0; symbol < symbols; symbol++) {
+            int next = transitions[0][symbol];
+            if (next < 0) {
+                transitions[0][symbol] = 0;
+            } else {
+                failure[next] = 0;
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.remove();
+            bestPriority[state] = Math.min(bestPriority[state], bestPriority[failure[state]]);
+
+            for (int symbol = 0; symbol < symbols; symbol++) {
+                int next = transitions[state][symbol];
+                if (next < 0) {
+                    transitions[state][symbol] = transitions[failure[state]][symbol];
+                } else {
+                    failure[next] = transitions[failure[state]][symbol];
+                    queue.add(next);
+                }
+            }
+        }
+    }
+
+    /**
+     * Compiles a dictionary. Throws IllegalArgumentException on an unknown type or a malformed line.
+     */
+    public static PropertyTypeMatcher compile(Reader dictionary) throws IOException {
+        List<PropertyType> types = new ArrayList<>();
+        List<List<String>> keywords = new ArrayList<>();
+        Map<String, PropertyType> seen = new HashMap<>();
+
+        BufferedReader reader = new BufferedReader(dictionary);
+        String line;
+        int number = 0;
+        while ((line = reader.readLine()) != null) {
+            number++;
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            int colon = line.indexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Line " + number + ": expected TYPE: keyword, keyword");
+            }
+
+            PropertyType type;
+            try {
+                type = PropertyType.valueOf(line.substring(0, colon).strip().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Line " + number + ": unknown property type "
+                        + line.substring(0, colon).strip());
+            }
+
+            List<String> lineKeywords = new ArrayList<>();
+            for (String keyword : line.substring(colon + 1).split(",")) {
+                String folded = fold(keyword).strip();
+                if (folded.chars().anyMatch(c -> c >= FOLD.length)) {
+                    throw new IllegalArgumentException("Line " + number + ": unsupported character in " + keyword.strip());
+                }
+                /* A keyword already listed keeps its earlier, higher priority */
+                if (!folded.isEmpty() && seen.putIfAbsent(folded, type) == null) {
+                    lineKeywords.add(folded);
+                }
+            }
+            types.add(type);
+            keywords.add(lineKeywords);
+        }
+
+        if (types.isEmpty()) {
+            throw new IllegalArgumentException("Property type dictionary is empty");
+        }
+        return new PropertyTypeMatcher(types, keywords);
+    }
+
+    /**
+     * Returns the type of the highest priority keyword found in the text, or OTHER.
+     */
+    public PropertyType classify(String text) {
+        if (text == null || text.isBlank()) {
+            return PropertyType.OTHER;
+        }
+
+        int state = 0;
+        int best = NO_MATCH;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int symbol = c < FOLD.length ? alphabet[FOLD[c]] : -1;
+            state = symbol < 0 ? 0 : transitions[state][symbol];
+
+            if (bestPriority[state] < best) {
+                best = bestPriority[state];
+                if (best == 0) {
+                    break;
+                }
+            }
+        }
+        return best == NO_MATCH ? PropertyType.OTHER : types[best];
+    }
+
+    public int getStateCount() {
+        return transitions.length;
+    }
+
+    public int getAlphabetSize() {
+        return alphabetSize;
+    }
+
+    private static int[] newState(int symbols) {
+        int[] state = new int[symbols];
+        Arrays.fill(state, -1);
+        return state;
+    }
+
+    /**
+     * Folds text the same way classified text is folded: lower case, no accents,
+     * final sigma as sigma, and anything but letters and digits as a space.
+     */
+    private static String fold(String text) {
+        StringBuilder folded = new StringBuilder(text.length());
+        for (char c : text.toCharArray()) {
+            folded.append(c < FOLD.length ? FOLD[c] : c);
+        }
+        return folded.toString();
+    }
+
+    private static char[] buildFoldTable(int size) {
+        char[] table = new char[size];
+        for (char c = 0; c < size; c++) {
+            if (!Character.isLetterOrDigit(c)) {
+                table[c] = ' ';
+                continue;
+            }
+            String base = Normalizer.normalize(String.valueOf(c).toLowerCase(GREEK), Normalizer.Form.NFD);
+            char folded = base.length() == 1 || Character.getType(base.charAt(1)) == Character.NON_SPACING_MARK
+                    ? base.charAt(0) : Character.toLowerCase(c);
+            table[c] = folded == 'ς' ? 'σ' : folded < size ? folded : c;
+        }
+        return table;
+    }
+}
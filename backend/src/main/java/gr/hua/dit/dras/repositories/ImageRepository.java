@@ -0,0 +1,25 @@
+package gr.hua.dit.dras.repositories;
+
+/* imports */
+import gr.hua.dit.dras.entities.Image;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ImageRepository extends JpaRepository<Image, Long> {
+
+    List<Image> findByUrlHashIn(Collection<String> urlHashes);
+
+    /**
+     * Stores the URL unless an image with the same hash exists; safe against concurrent inserts.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO images (url_hash, url) VALUES (:urlHash, :url) ON CONFLICT (url_hash) DO NOTHING",
+            nativeQuery = true)
+    void insertIfAbsent(@Param("urlHash") String urlHash, @Param("url") String url);
+}
@@ -0,0 +1,10 @@
+package gr.hua.dit.dras.repositories;
+
+/* imports */
+import gr.hua.dit.dras.entities.ImportDeadLetter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ImportDeadLetterRepository extends JpaRepository<ImportDeadLetter, Long> {
+}
@@ -0,0 +1,55 @@
+package gr.hua.dit.dras.repositories;
+
+/* imports */
+import gr.hua.dit.dras.entities.ImportIdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+public interface ImportIdempotencyKeyRepository extends JpaRepository<ImportIdempotencyKey, String> {
+
+    /* Scalar, so it is read from the database even if the key entity is cached */
+    @Query(value = "SELECT response FROM import_idempotency_keys " +
+            "WHERE idempotency_key = :key AND status = 'COMPLETED'",
+            nativeQuery = true)
+    Optional<String> findCompletedResponse(@Param("key") String key);
+
+    /**
+     * Claims the key for a new import: inserts it, or takes over a claim older than
+     * {@code abandonedBefore}, left by an import that never finished. Returns 1 if claimed.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO import_idempotency_keys (idempotency_key, status, claimed_at) " +
+            "VALUES (:key, 'IN_PROGRESS', :now) " +
+            "ON CONFLICT (idempotency_key) DO UPDATE SET claimed_at = EXCLUDED.claimed_at " +
+            "WHERE import_idempotency_keys.status = 'IN_PROGRESS' " +
+            "AND import_idempotency_keys.claimed_at < :abandonedBefore",
+            nativeQuery = true)
+    int claim(@Param("key") String key, @Param("now") Instant now, @Param("abandonedBefore") Instant abandonedBefore);
+
+    @Modifying
+    @Query(value = "UPDATE import_idempotency_keys SET status = 'COMPLETED', response = :response, " +
+            "completed_at = :now WHERE idempotency_key = :key",
+            nativeQuery = true)
+    int complete(@Param("key") String key, @Param("response") String response, @Param("now") Instant now);
+
+    @Modifying
+    @Query(value = "DELETE FROM import_idempotency_keys WHERE idempotency_key = :key AND status = 'IN_PROGRESS'",
+            nativeQuery = true)
+    int release(@Param("key") String key);
+
+    /**
+     * Deletes completed keys beyond the most recent {@code retained} ones.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM import_idempotency_keys WHERE idempotency_key IN (" +
+            "SELECT idempotency_key FROM import_idempotency_keys WHERE status = 'COMPLETED' " +
+            "ORDER BY completed_at DESC OFFSET :retained)",
+            nativeQuery = true)
+    int deleteAllButRecent(@Param("retained") int retained);
+}
@@ -0,0 +1,19 @@
+package gr.hua.dit.dras.repositories;
+
+/* imports */
+import gr.hua.dit.dras.entities.ImportSource;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.Optional;
+
+@Repository
+public interface ImportSourceRepository extends JpaRepository<ImportSource, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ImportSource s WHERE s.name = :name")
+    Optional<ImportSource> findForUpdate(@Param("name") String name);
+}
@@ -0,0 +1,721 @@
+package gr.hua.dit.dras.repositories;
+
+/* imports */
+import gr.hua.dit.dras.entities.Image;
+import gr.hua.dit.dras.entities.Listing;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Set-based writes of imported listings, bypassing the per-entity persist cycle.
+ * Every chunk costs one upsert statement, three image statements and at most four
+ * batches of changed image links, instead of a lookup and a save (with a full image
+ * rewrite) per listing. Whole snapshots can instead be streamed into a staging table
+ * with COPY and merged by a fixed handful of statements, whatever their size.
+ */
+@Repository
+public class ListingBulkRepository {
+
+    /* Listings per statement; 22 parameters each stays well below the 65535 bind limit */
+    public static final int CHUNK_SIZE = 500;
+
+    private static final Pattern ARCHIVE_PARTITION = Pattern.compile("listing_archive_p(\\d{4})(\\d{2})");
+
+    private static final String UPSERT_COLUMNS =
+            "title, subtitle, description, price, price_perm2, address, sizem2, rooms, " +
+            "property_type, rental_duration, source_url, status, external, owner_id, date_scraped, " +
+            "latitude, longitude, municipality, district, content_hash, created_at, updated_at";
+
+    private static final String UPSERT_ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /*
+     * created_at is only written on insert. A record scraped before the stored one is left out,
+     * so a late older record can never overwrite newer data, and is not returned.
+     */
+    private static final String UPSERT_CONFLICT =
+            " ON CONFLICT (source_url) DO UPDATE SET " +
+            "title = EXCLUDED.title, subtitle = EXCLUDED.subtitle, description = EXCLUDED.description, " +
+            "price = EXCLUDED.price, price_perm2 = EXCLUDED.price_perm2, address = EXCLUDED.address, " +
+            "sizem2 = EXCLUDED.sizem2, rooms = EXCLUDED.rooms, property_type = EXCLUDED.property_type, " +
+            "rental_duration = EXCLUDED.rental_duration, status = EXCLUDED.status, external = EXCLUDED.external, " +
+            "owner_id = EXCLUDED.owner_id, date_scraped = EXCLUDED.date_scraped, " +
+            "latitude = EXCLUDED.latitude, longitude = EXCLUDED.longitude, " +
+            "municipality = EXCLUDED.municipality, district = EXCLUDED.district, " +
+            "content_hash = EXCLUDED.content_hash, updated_at = EXCLUDED.updated_at " +
+            "WHERE listings.date_scraped IS NULL OR EXCLUDED.date_scraped >= listings.date_scraped " +
+            /* xmax is only zero on rows this statement inserted */
+            "RETURNING id, source_url, (xmax = 0) AS inserted";
+
+    /* Characters of COPY rows buffered before each write to the server */
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private static final String STAGING_COLUMNS =
+            "position, title, subtitle, description, price, price_perm2, address, sizem2, rooms, " +
+            "property_type, rental_duration, source_url, status, external, date_scraped, " +
+            "latitude, longitude, municipality, district, content_hash, images";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ListingBulkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts or updates the listings by source URL. A URL repeated in the input keeps its last values;
+     * a listing scraped before the stored one is skipped. Listings whose stored content hash equals
+     * their own are not rewritten; only their scrape timestamp is touched, and never moved back. Images are only written for listings that carry some,
+     * and only where they changed.
+     */
+    public UpsertResult upsertBySourceUrl(List<Listing> listings, Integer ownerId) {
+        Map<String, Listing> bySourceUrl = new LinkedHashMap<>();
+        listings.forEach(listing -> bySourceUrl.put(listing.getSourceUrl().trim(), listing));
+
+        List<Map.Entry<String, Listing>> entries = new ArrayList<>(bySourceUrl.entrySet());
+        UpsertResult result = new UpsertResult();
+
+        for (int from = 0; from < entries.size(); from += CHUNK_SIZE) {
+            List<Map.Entry<String, Listing>> chunk = entries.subList(from, Math.min(from + CHUNK_SIZE, entries.size()));
+            Map<String, StoredHash> stored = findHashes(chunk);
+
+            List<Map.Entry<String, Listing>> changed = new ArrayList<>(chunk.size());
+            List<Object[]> touches = new ArrayList<>();
+
+            for (Map.Entry<String, Listing> entry : chunk) {
+                StoredHash current = stored.get(entry.getKey());
+                String hash = entry.getValue().getContentHash();
+                if (current != null && hash != null && hash.equals(current.hash)) {
+                    touches.add(new Object[]{timestamp(entry.getValue().getDateScraped()), current.id});
+                    result.unchangedIds.add(current.id);
+                } else {
+                    changed.add(entry);
+                }
+            }
+
+            if (!touches.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE listings SET date_scraped = greatest(date_scraped, ?) WHERE id = ?", touches);
+            }
+            if (changed.isEmpty()) {
+                continue;
+            }
+
+            Map<String, Integer> chunkIds = upsertChunk(changed, ownerId, result);
+
+            Map<Integer, List<String>> images = new LinkedHashMap<>();
+            for (Map.Entry<String, Listing> entry : changed) {
+                Integer id = chunkIds.get(entry.getKey());
+                /* No id: the stored listing was scraped later and was kept */
+                if (id != null && !entry.getValue().getImages().isEmpty()) {
+                    images.put(id, entry.getValue().getImages());
+                }
+            }
+            syncImages(images);
+        }
+        return result;
+    }
+
+    /**
+     * Upserts a whole snapshot with the semantics of {@link #upsertBySourceUrl}: the listings are
+     * streamed into a temporary staging table with COPY, then merged into listings, images and
+     * image links by set-based statements. Must run in a transaction, which the staging tables
+     * last for; nothing is visible to other sessions until it commits.
+     */
+    public UpsertResult copyUpsert(Iterator<Listing> listings, Integer ownerId) {
+        jdbcTemplate.execute("CREATE TEMPORARY TABLE listing_staging (" +
+                "position bigint, title text, subtitle text, description text, price integer, " +
+                "price_perm2 integer, address text, sizem2 integer, rooms integer, property_type varchar(30), " +
+                "rental_duration varchar(20), source_url varchar(500), status varchar(20), external boolean, " +
+                "date_scraped timestamptz, latitude double precision, longitude double precision, " +
+                "municipality varchar(100), district varchar(100), content_hash varchar(64), images text[]" +
+                ") ON COMMIT DROP");
+
+        long staged = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> copyIn(connection, listings));
+        if (staged == 0) {
+            return new UpsertResult();
+        }
+
+        /* The last row of a URL wins, as in the chunked path */
+        jdbcTemplate.execute("CREATE TEMPORARY TABLE listing_merge ON COMMIT DROP AS " +
+                "SELECT DISTINCT ON (s.source_url) s.*, l.id AS stored_id, l.content_hash AS stored_hash " +
+                "FROM listing_staging s LEFT JOIN listings l ON l.source_url = s.source_url " +
+                "ORDER BY s.source_url, s.position DESC");
+        /* Temporary tables are never analyzed automatically */
+        jdbcTemplate.execute("ANALYZE listing_merge");
+
+        UpsertResult result = new UpsertResult();
+        result.unchangedIds.addAll(jdbcTemplate.queryForList(
+                "UPDATE listings l SET date_scraped = greatest(l.date_scraped, m.date_scraped) FROM listing_merge m " +
+                        "WHERE l.id = m.stored_id AND m.content_hash = m.stored_hash RETURNING l.id",
+                Integer.class));
+
+        jdbcTemplate.execute("CREATE TEMPORARY TABLE listing_changed " +
+                "(id integer PRIMARY KEY, source_url varchar(500)) ON COMMIT DROP");
+        jdbcTemplate.query(
+                "WITH upserted AS (INSERT INTO listings (" + UPSERT_COLUMNS + ") " +
+                        "SELECT title, subtitle, description, price, price_perm2, address, sizem2, rooms, " +
+                        "property_type, rental_duration, source_url, status, external, ?, date_scraped, " +
+                        "latitude, longitude, municipality, district, content_hash, now(), now() " +
+                        "FROM listing_merge WHERE content_hash IS NULL OR content_hash IS DISTINCT FROM stored_hash " +
+                        /* Rows are locked in a stable order, so concurrent loads cannot deadlock */
+                        "ORDER BY source_url" + UPSERT_CONFLICT + "), " +
+                        "recorded AS (INSERT INTO listing_changed SELECT id, source_url FROM upserted) " +
+                        "SELECT id, inserted FROM upserted",
+                rs -> {
+                    int id = rs.getInt("id");
+                    (rs.getBoolean("inserted") ? result.insertedIds : result.updatedIds).add(id);
+                },
+                ownerId);
+
+        mergeImages();
+        return result;
+    }
+
+    /**
+     * Set-based counterpart of {@link #syncImages}, for the changed listings of a staged snapshot
+     * that carry images: unknown URLs are stored, links that are not wanted at their position are
+     * deleted and the missing ones inserted, so kept images are not rewritten.
+     */
+    private void mergeImages() {
+        jdbcTemplate.update(
+                "INSERT INTO images (url_hash, url) " +
+                        "SELECT DISTINCT ON (url_hash) encode(sha256(convert_to(image.url, 'UTF8')), 'hex') AS url_hash, image.url " +
+                        "FROM listing_changed c JOIN listing_merge m ON m.source_url = c.source_url " +
+                        "CROSS JOIN unnest(m.images) AS image(url) " +
+                        "ORDER BY url_hash ON CONFLICT (url_hash) DO NOTHING");
+
+        /* A URL listed twice keeps its first position; positions are renumbered without gaps */
+        jdbcTemplate.execute("CREATE TEMPORARY TABLE listing_image_wanted ON COMMIT DROP AS " +
+                "SELECT c.id AS listing_id, i.id AS image_id, " +
+                "(row_number() OVER (PARTITION BY c.id ORDER BY min(image.ordinality)) - 1)::integer AS image_order " +
+                "FROM listing_changed c JOIN listing_merge m ON m.source_url = c.source_url " +
+                "CROSS JOIN unnest(m.images) WITH ORDINALITY AS image(url, ordinality) " +
+                "JOIN images i ON i.url_hash = encode(sha256(convert_to(image.url, 'UTF8')), 'hex') " +
+                "GROUP BY c.id, i.id");
+
+        jdbcTemplate.update(
+                "DELETE FROM listing_image_links l " +
+                        "WHERE l.listing_id IN (SELECT listing_id FROM listing_image_wanted) " +
+                        "AND NOT EXISTS (SELECT 1 FROM listing_image_wanted w WHERE w.listing_id = l.listing_id " +
+                        "AND w.image_id = l.image_id AND w.image_order = l.image_order)");
+        /* What is left of those listings' links is exactly the wanted links already in place */
+        jdbcTemplate.update(
+                "INSERT INTO listing_image_links (listing_id, image_order, image_id) " +
+                        "SELECT listing_id, image_order, image_id FROM listing_image_wanted " +
+                        "ORDER BY listing_id, image_id ON CONFLICT DO NOTHING");
+    }
+
+    /**
+     * Streams the listings into the staging table as CSV and returns how many were staged.
+     */
+    private static long copyIn(Connection connection, Iterator<Listing> listings) throws SQLException {
+        CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI()
+                .copyIn("COPY listing_staging (" + STAGING_COLUMNS + ") FROM STDIN WITH (FORMAT csv)");
+
+        try {
+            StringBuilder rows = new StringBuilder(COPY_BUFFER_SIZE + 8 * 1024);
+            long position = 0;
+
+            while (listings.hasNext()) {
+                Listing listing = listings.next();
+                appendCopyRow(rows, position++, listing);
+
+                if (rows.length() >= COPY_BUFFER_SIZE) {
+                    writeCopy(copy, rows);
+                }
+            }
+            writeCopy(copy, rows);
+            copy.endCopy();
+            return position;
+        } finally {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        }
+    }
+
+    private static void writeCopy(CopyIn copy, StringBuilder rows) throws SQLException {
+        byte[] bytes = rows.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+        rows.setLength(0);
+    }
+
+    private static void appendCopyRow(StringBuilder row, long position, Listing listing) {
+        appendCsv(row, position, false);
+        appendCsv(row, trim(listing.getTitle()), true);
+        appendCsv(row, trim(listing.getSubtitle()), true);
+        appendCsv(row, trim(listing.getDescription()), true);
+        appendCsv(row, listing.getPrice(), true);
+        appendCsv(row, listing.getPricePerM2(), true);
+        appendCsv(row, trim(listing.getAddress()), true);
+        appendCsv(row, listing.getSizeM2(), true);
+        appendCsv(row, listing.getRooms(), true);
+        appendCsv(row, listing.getPropertyType().name(), true);
+        appendCsv(row, listing.getRentalDuration().name(), true);
+        appendCsv(row, listing.getSourceUrl().trim(), true);
+        appendCsv(row, listing.getStatus().name(), true);
+        appendCsv(row, listing.isExternal(), true);
+        appendCsv(row, listing.getDateScraped(), true);
+        appendCsv(row, listing.getLatitude(), true);
+        appendCsv(row, listing.getLongitude(), true);
+        appendCsv(row, listing.getMunicipality(), true);
+        appendCsv(row, listing.getDistrict(), true);
+        appendCsv(row, listing.getContentHash(), true);
+        appendCsv(row, arrayLiteral(listing.getImages()), true);
+        row.append('\n');
+    }
+
+    /**
+     * Appends a CSV field; null stays an unquoted empty field, which COPY reads as NULL.
+     */
+    private static void appendCsv(StringBuilder row, Object value, boolean separator) {
+        if (separator) {
+            row.append(',');
+        }
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        row.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                row.append('"');
+            }
+            row.append(c);
+        }
+        row.append('"');
+    }
+
+    /**
+     * Formats a text[] literal; empty lists are stored as NULL, meaning no images to write.
+     */
+    private static String arrayLiteral(List<String> values) {
+        if (values.isEmpty()) {
+            return null;
+        }
+        StringBuilder array = new StringBuilder("{");
+        for (String value : values) {
+            array.append(array.length() == 1 ? "\"" : ",\"");
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    array.append('\\');
+                }
+                array.append(c);
+            }
+            array.append('"');
+        }
+        return array.append('}').toString();
+    }
+
+    /**
+     * Moves up to {@code limit} external listings last scraped before the cutoff into the
+     * listing_archive history, then deletes them with their image links and tenant applications,
+     * and the images no other listing links to any more.
+     * Listings under the URL prefix of a delta source are kept, as tombstones remove those,
+     * and rows locked by other transactions are left for a later chunk. Must run in a transaction.
+     */
+    public DeleteResult archiveStaleExternal(Instant cutoff, int limit) {
+        List<Integer> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM listings l WHERE l.external = true AND l.date_scraped < ? " +
+                        "AND NOT EXISTS (SELECT 1 FROM import_sources s WHERE starts_with(l.source_url, s.url_prefix)) " +
+                        "ORDER BY l.id LIMIT ? FOR UPDATE SKIP LOCKED",
+                Integer.class, timestamp(cutoff), limit);
+        return archiveAndDelete(ids);
+    }
+
+    /**
+     * Moves the given external listings into listing_archive and deletes them as
+     * {@link #archiveStaleExternal} does; ids of local or missing listings are ignored.
+     * Waits for rows locked by other transactions. Must run in a transaction.
+     */
+    public DeleteResult archiveExternal(Collection<Integer> listingIds) {
+        if (listingIds.isEmpty()) {
+            return new DeleteResult(List.of());
+        }
+        List<Integer> ids = jdbcTemplate.query(
+                "SELECT id FROM listings WHERE id = ANY (?) AND external = true ORDER BY id FOR UPDATE",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("integer", listingIds.toArray())),
+                (rs, row) -> rs.getInt("id"));
+        return archiveAndDelete(ids);
+    }
+
+    /**
+     * Archives and deletes the locked listings with their image links, applications and orphaned images.
+     */
+    private DeleteResult archiveAndDelete(List<Integer> ids) {
+        DeleteResult result = new DeleteResult(ids);
+        if (ids.isEmpty()) {
+            return result;
+        }
+
+        List<LocalDate> months = jdbcTemplate.query(
+                "SELECT DISTINCT date_trunc('month', date_scraped AT TIME ZONE 'UTC')::date AS month " +
+                        "FROM listings WHERE id = ANY (?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("integer", ids.toArray())),
+                (rs, row) -> rs.getObject("month", LocalDate.class));
+        months.forEach(this::createArchivePartition);
+
+        result.archived = jdbcTemplate.update(
+                "INSERT INTO listing_archive (listing_id, source_url, date_scraped, created_at, title, price, " +
+                        "price_per_m2, size_m2, rooms, property_type, rental_duration, address, municipality, " +
+                        "district, latitude, longitude) " +
+                        "SELECT id, source_url, date_scraped, created_at, title, price, price_perm2, sizem2, rooms, " +
+                        "property_type, rental_duration, address, municipality, district, latitude, longitude " +
+                        "FROM listings WHERE id = ANY (?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("integer", ids.toArray())));
+
+        List<Long> unlinkedImages = jdbcTemplate.query(
+                "DELETE FROM listing_image_links WHERE listing_id = ANY (?) RETURNING image_id",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("integer", ids.toArray())),
+                (rs, row) -> rs.getLong("image_id"));
+        result.imageLinks = unlinkedImages.size();
+
+        result.applications = jdbcTemplate.update(
+                "DELETE FROM tenant_listing_applications WHERE listing_id = ANY (?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("integer", ids.toArray())));
+
+        jdbcTemplate.update("DELETE FROM listings WHERE id = ANY (?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("integer", ids.toArray())));
+
+        if (!unlinkedImages.isEmpty()) {
+            Object[] imageIds = unlinkedImages.stream().distinct().toArray();
+            result.images = jdbcTemplate.update(
+                    "DELETE FROM images i WHERE i.id = ANY (?) " +
+                            "AND NOT EXISTS (SELECT 1 FROM listing_image_links l WHERE l.image_id = i.id)",
+                    ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", imageIds)));
+        }
+        return result;
+    }
+
+    /**
+     * Drops the listing_archive partitions whose whole month lies before the cutoff,
+     * and returns their names.
+     */
+    public List<String> dropArchivePartitionsBefore(Instant cutoff) {
+        LocalDate firstKept = cutoff.atOffset(ZoneOffset.UTC).toLocalDate().withDayOfMonth(1);
+        List<String> dropped = new ArrayList<>();
+        for (String partition : jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "WHERE i.inhparent = 'listing_archive'::regclass ORDER BY c.relname", String.class)) {
+            Matcher matcher = ARCHIVE_PARTITION.matcher(partition);
+            if (matcher.matches() && YearMonth.parse(matcher.group(1) + "-" + matcher.group(2))
+                    .atDay(1).isBefore(firstKept)) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+                dropped.add(partition);
+            }
+        }
+        return dropped;
+    }
+
+    /**
+     * Creates the listing_archive partition of the month starting at the given day, if missing.
+     */
+    private void createArchivePartition(LocalDate month) {
+        YearMonth yearMonth = YearMonth.from(month);
+        jdbcTemplate.execute(String.format(
+                "CREATE TABLE IF NOT EXISTS listing_archive_p%04d%02d PARTITION OF listing_archive " +
+                        "FOR VALUES FROM ('%s 00:00:00+00') TO ('%s 00:00:00+00')",
+                yearMonth.getYear(), yearMonth.getMonthValue(),
+                yearMonth.atDay(1), yearMonth.plusMonths(1).atDay(1)));
+    }
+
+    private Map<String, StoredHash> findHashes(List<Map.Entry<String, Listing>> chunk) {
+        Map<String, StoredHash> hashes = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT id, source_url, content_hash FROM listings WHERE source_url = ANY (?)",
+                ps -> {
+                    Array array = ps.getConnection().createArrayOf("varchar",
+                            chunk.stream().map(Map.Entry::getKey).toArray());
+                    ps.setArray(1, array);
+                },
+                rs -> {
+                    hashes.put(rs.getString("source_url"),
+                            new StoredHash(rs.getInt("id"), rs.getString("content_hash")));
+                });
+        return hashes;
+    }
+
+    private Map<String, Integer> upsertChunk(List<Map.Entry<String, Listing>> chunk, Integer ownerId,
+                                             UpsertResult result) {
+        OffsetDateTime now = OffsetDateTime.ofInstant(Instant.now().truncatedTo(ChronoUnit.MICROS), ZoneOffset.UTC);
+
+        StringBuilder sql = new StringBuilder("INSERT INTO listings (").append(UPSERT_COLUMNS).append(") VALUES ");
+        List<Object> args = new ArrayList<>(chunk.size() * 22);
+
+        for (int i = 0; i < chunk.size(); i++) {
+            Listing listing = chunk.get(i).getValue();
+            sql.append(i == 0 ? "" : ", ").append(UPSERT_ROW);
+
+            args.add(trim(listing.getTitle()));
+            args.add(trim(listing.getSubtitle()));
+            args.add(trim(listing.getDescription()));
+            args.add(listing.getPrice());
+            args.add(listing.getPricePerM2());
+            args.add(trim(listing.getAddress()));
+            args.add(listing.getSizeM2());
+            args.add(listing.getRooms());
+            args.add(listing.getPropertyType().name());
+            args.add(listing.getRentalDuration().name());
+            args.add(chunk.get(i).getKey());
+            args.add(listing.getStatus().name());
+            args.add(listing.isExternal());
+            args.add(ownerId);
+            args.add(timestamp(listing.getDateScraped()));
+            args.add(listing.getLatitude());
+            args.add(listing.getLongitude());
+            args.add(listing.getMunicipality());
+            args.add(listing.getDistrict());
+            args.add(listing.getContentHash());
+            args.add(now);
+            args.add(now);
+        }
+        sql.append(UPSERT_CONFLICT);
+
+        Map<String, Integer> ids = new HashMap<>();
+        jdbcTemplate.query(sql.toString(), rs -> {
+            int id = rs.getInt("id");
+            ids.put(rs.getString("source_url"), id);
+            (rs.getBoolean("inserted") ? result.insertedIds : result.updatedIds).add(id);
+        }, args.toArray());
+        return ids;
+    }
+
+    /**
+     * Brings the stored image links in line with the given URL lists. Only links to
+     * URLs that were added or removed are inserted or deleted; kept images whose
+     * position changed get their order updated. A URL listed twice keeps its first position.
+     */
+    private void syncImages(Map<Integer, List<String>> images) {
+        if (images.isEmpty()) {
+            return;
+        }
+
+        Map<String, Long> imageIds = storeImages(images.values());
+        Map<Integer, Map<Long, Integer>> stored = findImageLinks(new ArrayList<>(images.keySet()));
+
+        List<Object[]> deletes = new ArrayList<>();
+        List<Object[]> moves = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+
+        images.forEach((listingId, urls) -> {
+            Map<Long, Integer> current = stored.getOrDefault(listingId, Map.of());
+            Map<Long, Integer> wanted = new LinkedHashMap<>();
+            for (String url : urls) {
+                wanted.putIfAbsent(imageIds.get(Image.hash(url)), wanted.size());
+            }
+
+            current.forEach((imageId, order) -> {
+                if (!wanted.containsKey(imageId)) {
+                    deletes.add(new Object[]{listingId, imageId});
+                }
+            });
+            wanted.forEach((imageId, order) -> {
+                Integer currentOrder = current.get(imageId);
+                if (currentOrder == null) {
+                    inserts.add(new Object[]{listingId, order, imageId});
+                } else if (!currentOrder.equals(order)) {
+                    moves.add(new Object[]{order, listingId, imageId});
+                }
+            });
+        });
+
+        /* Rows are locked in key order, like the image hashes, so concurrent writers cannot deadlock */
+        Comparator<Object[]> byListingAndImage = Comparator
+                .comparing((Object[] row) -> (Integer) row[row.length - 2])
+                .thenComparing(row -> (Long) row[row.length - 1]);
+        deletes.sort(byListingAndImage);
+        moves.sort(byListingAndImage);
+        inserts.sort(Comparator.comparing((Object[] row) -> (Integer) row[0]).thenComparing(row -> (Long) row[2]));
+
+        if (!deletes.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "DELETE FROM listing_image_links WHERE listing_id = ? AND image_id = ?", deletes);
+        }
+        if (!moves.isEmpty()) {
+            /* (listing_id, image_order) is unique, so moved links pass through free negative positions first */
+            jdbcTemplate.batchUpdate(
+                    "UPDATE listing_image_links SET image_order = -1 - ? WHERE listing_id = ? AND image_id = ?", moves);
+            jdbcTemplate.batchUpdate(
+                    "UPDATE listing_image_links SET image_order = ? WHERE listing_id = ? AND image_id = ?", moves);
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO listing_image_links (listing_id, image_order, image_id) VALUES (?, ?, ?)", inserts);
+        }
+    }
+
+    /**
+     * Stores the URLs not yet known and returns the image id of every URL, keyed by URL hash.
+     */
+    private Map<String, Long> storeImages(Collection<List<String>> urlLists) {
+        /*
+         * Shared URLs are inserted in hash order, so that concurrent writers take the
+         * url_hash keys in the same order and cannot deadlock on each other
+         */
+        Map<String, String> urlsByHash = new TreeMap<>();
+        urlLists.forEach(urls -> urls.forEach(url -> urlsByHash.putIfAbsent(Image.hash(url), url)));
+
+        Object[] hashes = urlsByHash.keySet().toArray();
+        Object[] urls = urlsByHash.values().toArray();
+
+        jdbcTemplate.update(
+                "INSERT INTO images (url_hash, url) " +
+                        "SELECT * FROM unnest(?::varchar[], ?::varchar[]) AS image(url_hash, url) " +
+                        "ORDER BY url_hash ON CONFLICT (url_hash) DO NOTHING",
+                ps -> {
+                    ps.setArray(1, ps.getConnection().createArrayOf("varchar", hashes));
+                    ps.setArray(2, ps.getConnection().createArrayOf("varchar", urls));
+                });
+
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT id, url_hash FROM images WHERE url_hash = ANY (?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", hashes)),
+                rs -> {
+                    ids.put(rs.getString("url_hash"), rs.getLong("id"));
+                });
+        return ids;
+    }
+
+    private Map<Integer, Map<Long, Integer>> findImageLinks(List<Integer> listingIds) {
+        Map<Integer, Map<Long, Integer>> links = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT listing_id, image_id, image_order FROM listing_image_links WHERE listing_id = ANY (?)",
+                ps -> {
+                    Array array = ps.getConnection().createArrayOf("integer", listingIds.toArray());
+                    ps.setArray(1, array);
+                },
+                rs -> {
+                    links.computeIfAbsent(rs.getInt("listing_id"), id -> new HashMap<>())
+                            .put(rs.getLong("image_id"), rs.getInt("image_order"));
+                });
+        return links;
+    }
+
+    private static OffsetDateTime timestamp(Instant instant) {
+        return instant == null ? null : OffsetDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+
+    private static String trim(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static final class StoredHash {
+
+        private final int id;
+        private final String hash;
+
+        private StoredHash(int id, String hash) {
+            this.id = id;
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * Ids written by an upsert, split by what happened to them.
+     */
+    public static class UpsertResult {
+
+        private final List<Integer> insertedIds = new ArrayList<>();
+        private final List<Integer> updatedIds = new ArrayList<>();
+        private final List<Integer> unchangedIds = new ArrayList<>();
+
+        public List<Integer> getInsertedIds() {
+            return insertedIds;
+        }
+
+        public List<Integer> getUpdatedIds() {
+            return updatedIds;
+        }
+
+        /**
+         * Listings whose content matched the stored hash; only their scrape timestamp was written.
+         */
+        public List<Integer> getUnchangedIds() {
+            return unchangedIds;
+        }
+
+        /**
+         * Inserted and updated ids, the ones other listeners need to hear about.
+         */
+        public List<Integer> getChangedIds() {
+            List<Integer> changed = new ArrayList<>(insertedIds.size() + updatedIds.size());
+            changed.addAll(insertedIds);
+            changed.addAll(updatedIds);
+            return changed;
+        }
+
+        /**
+         * Every listing the import wrote or touched, changed or not.
+         */
+        public List<Integer> getAllIds() {
+            List<Integer> all = getChangedIds();
+            all.addAll(unchangedIds);
+            return all;
+        }
+    }
+
+    /**
+     * What archiving a chunk of listings moved and removed.
+     */
+    public static class DeleteResult {
+
+        private final List<Integer> listingIds;
+        private int archived;
+        private int imageLinks;
+        private int applications;
+        private int images;
+
+        private DeleteResult(List<Integer> listingIds) {
+            this.listingIds = listingIds;
+        }
+
+        public List<Integer> getListingIds() {
+            return listingIds;
+        }
+
+        public int getArchived() {
+            return archived;
+        }
+
+        public int getImageLinks() {
+            return imageLinks;
+        }
+
+        public int getApplications() {
+            return applications;
+        }
+
+        public int getImages() {
+            return images;
+        }
+    }
+}
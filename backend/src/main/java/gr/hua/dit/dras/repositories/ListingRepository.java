@@ -4,10 +4,14 @@ package gr.hua.dit.dras.repositories;
 import gr.hua.dit.dras.entities.Listing;
 import gr.hua.dit.dras.entities.Owner;
 import gr.hua.dit.dras.model.enums.ListingStatus;
+import gr.hua.dit.dras.search.ListingIndexRow;
+import gr.hua.dit.dras.search.TextMatch;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,6 +23,63 @@ public interface ListingRepository extends JpaRepository<Listing, Integer>, JpaS
     List<Listing> findByExternalFalse();
     List<Listing> findByExternalTrue();
     List<Listing> findByStatus(ListingStatus status);
-    void deleteByExternalTrueAndDateScrapedBefore(Instant cutoff);
+
+    /*
+     * Full-text hits, best first, after the keyset position (afterRank, afterId); pass
+     * +Infinity and Integer.MAX_VALUE for the first page.
+     * search_vector and its GIN index come from db/fulltext.sql
+     */
+    @Query(value = "SELECT id, rank FROM (" +
+            "SELECT l.id AS id, ts_rank_cd(l.search_vector, q) AS rank " +
+            "FROM listings l, websearch_to_tsquery('greek', dras_greek_normalize(:query)) q " +
+            "WHERE l.search_vector @@ q) hits " +
+            "WHERE (rank, id) < (CAST(:afterRank AS real), :afterId) " +
+            "ORDER BY rank DESC, id DESC " +
+            "LIMIT :limit", nativeQuery = true)
+    List<TextMatch> findTextMatches(@Param("query") String query,
+                                    @Param("afterRank") float afterRank,
+                                    @Param("afterId") int afterId,
+                                    @Param("limit") int limit);
+
+    /* As findTextMatches, restricted to the given listings (the filter index candidates) */
+    @Query(value = "SELECT id, rank FROM (" +
+            "SELECT l.id AS id, ts_rank_cd(l.search_vector, q) AS rank " +
+            "FROM listings l, websearch_to_tsquery('greek', dras_greek_normalize(:query)) q " +
+            "WHERE l.search_vector @@ q AND l.id = ANY (:ids)) hits " +
+            "WHERE (rank, id) < (CAST(:afterRank AS real), :afterId) " +
+            "ORDER BY rank DESC, id DESC " +
+            "LIMIT :limit", nativeQuery = true)
+    List<TextMatch> findTextMatchesIn(@Param("query") String query,
+                                      @Param("ids") Integer[] ids,
+                                      @Param("afterRank") float afterRank,
+                                      @Param("afterId") int afterId,
+                                      @Param("limit") int limit);
+
+    /* Every full-text hit, unranked; the GIN index answers this alone */
+    @Query(value = "SELECT l.id FROM listings l " +
+            "WHERE l.search_vector @@ websearch_to_tsquery('greek', dras_greek_normalize(:query))", nativeQuery = true)
+    List<Integer> findTextMatchIds(@Param("query") String query);
+
+    /* As findTextMatchIds, restricted to the given listings (the filter index candidates) */
+    @Query(value = "SELECT l.id FROM listings l " +
+            "WHERE l.search_vector @@ websearch_to_tsquery('greek', dras_greek_normalize(:query)) " +
+            "AND l.id = ANY (:ids)", nativeQuery = true)
+    List<Integer> findTextMatchIdsIn(@Param("query") String query, @Param("ids") Integer[] ids);
+
+    @Query("SELECT l.id FROM Listing l WHERE l.external = true AND l.sourceUrl IN :sourceUrls")
+    List<Integer> findExternalIdsBySourceUrlIn(@Param("sourceUrls") Collection<String> sourceUrls);
+
+    /* Rows for the in-memory filter index */
+    @Query("SELECT new gr.hua.dit.dras.search.ListingIndexRow(" +
+            "l.id, l.propertyType, l.status, l.external, l.rentalDuration, " +
+            "l.price, l.pricePerM2, l.sizeM2, l.rooms, l.municipality, l.district, " +
+            "l.latitude, l.longitude, l.updatedAt) FROM Listing l")
+    List<ListingIndexRow> findIndexRows();
+
+    @Query("SELECT new gr.hua.dit.dras.search.ListingIndexRow(" +
+            "l.id, l.propertyType, l.status, l.external, l.rentalDuration, " +
+            "l.price, l.pricePerM2, l.sizeM2, l.rooms, l.municipality, l.district, " +
+            "l.latitude, l.longitude, l.updatedAt) FROM Listing l WHERE l.id IN :ids")
+    List<ListingIndexRow> findIndexRowsByIdIn(@Param("ids") Collection<Integer> ids);
 
 }
@@ -2,7 +2,10 @@ package gr.hua.dit.dras.repositories;
 
 /* imports */
 import gr.hua.dit.dras.entities.Owner;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
@@ -10,6 +13,8 @@ import java.util.Optional;
 public interface OwnerRepository extends JpaRepository<Owner, Integer> {
 
     Optional<Owner> findByUserId(Integer userId);
+    /* Looked up by every import */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Owner> findBySystemOwnerTrue();
 
 }
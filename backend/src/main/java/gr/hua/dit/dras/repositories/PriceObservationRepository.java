@@ -0,0 +1,93 @@
+package gr.hua.dit.dras.repositories;
+
+/* imports */
+import gr.hua.dit.dras.dto.PriceTrendDTO;
+import gr.hua.dit.dras.entities.Listing;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Appends to and reads the listing_price_observations series (see db/price-observations.sql).
+ * Imports append a whole chunk with one statement, reading the values just written to listings.
+ */
+@Repository
+public class PriceObservationRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PriceObservationRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Records the current price of the listings, observed when they were last scraped.
+     * Must run in the transaction that wrote them.
+     */
+    public int appendCurrent(Collection<Integer> listingIds) {
+        if (listingIds.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(
+                "INSERT INTO listing_price_observations (listing_id, observed_at, price, price_per_m2, size_m2) " +
+                        "SELECT id, coalesce(date_scraped, now()), price, price_perm2, sizem2 " +
+                        "FROM listings WHERE id = ANY (?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("integer", listingIds.toArray())));
+    }
+
+    /**
+     * Records the price of a listing as it is being saved, which may not be flushed yet.
+     */
+    public void append(Listing listing, Instant observedAt) {
+        jdbcTemplate.update(
+                "INSERT INTO listing_price_observations (listing_id, observed_at, price, price_per_m2, size_m2) " +
+                        "VALUES (?, ?, ?, ?, ?)",
+                listing.getId(), OffsetDateTime.ofInstant(observedAt, ZoneOffset.UTC),
+                listing.getPrice(), listing.getPricePerM2(), listing.getSizeM2());
+    }
+
+    /**
+     * Whether the price, price per m² or size of a listing about to be saved differ from the stored
+     * row; true for a new listing. Read with plain JDBC, so pending entity changes are not flushed.
+     */
+    public boolean priceChanged(Listing listing) {
+        if (listing.getId() == null) {
+            return true;
+        }
+        List<Boolean> changed = jdbcTemplate.query(
+                "SELECT price, price_perm2, sizem2 FROM listings WHERE id = ?",
+                (rs, row) -> !Objects.equals(rs.getObject("price", Integer.class), listing.getPrice())
+                        || !Objects.equals(rs.getObject("price_perm2", Integer.class), listing.getPricePerM2())
+                        || !Objects.equals(rs.getObject("sizem2", Integer.class), listing.getSizeM2()),
+                listing.getId());
+        return changed.isEmpty() || changed.get(0);
+    }
+
+    /**
+     * Weekly medians of the observations from the week of {@code from} up to {@code to} (exclusive),
+     * by ISO week starting on Monday, UTC.
+     */
+    public List<PriceTrendDTO> findWeeklyTrend(LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(
+                "SELECT date_trunc('week', observed_at AT TIME ZONE 'UTC')::date AS week, " +
+                        "count(*) AS observations, count(DISTINCT listing_id) AS listings, " +
+                        "percentile_cont(0.5) WITHIN GROUP (ORDER BY price) AS median_price, " +
+                        "percentile_cont(0.5) WITHIN GROUP (ORDER BY price_per_m2) AS median_price_per_m2 " +
+                        "FROM listing_price_observations " +
+                        "WHERE observed_at >= ? AND observed_at < ? " +
+                        "GROUP BY 1 ORDER BY 1",
+                (rs, row) -> new PriceTrendDTO(
+                        rs.getObject("week", LocalDate.class),
+                        rs.getLong("observations"),
+                        rs.getLong("listings"),
+                        rs.getDouble("median_price"),
+                        rs.getDouble("median_price_per_m2")),
+                from.atStartOfDay().atOffset(ZoneOffset.UTC), to.atStartOfDay().atOffset(ZoneOffset.UTC));
+    }
+}
@@ -2,13 +2,18 @@ package gr.hua.dit.dras.repositories;
 
 /* imports */
 import gr.hua.dit.dras.entities.Role;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Integer> {
 
+    /* Looked up on nearly every account and listing write; roles never change at runtime */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Role> findByName(String roleName);
 
     default Role updateOrInsert(Role role) {
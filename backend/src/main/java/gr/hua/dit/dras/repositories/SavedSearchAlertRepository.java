@@ -0,0 +1,36 @@
+package gr.hua.dit.dras.repositories;
+
+/* imports */
+import gr.hua.dit.dras.entities.SavedSearchAlert;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SavedSearchAlertRepository extends JpaRepository<SavedSearchAlert, Long> {
+
+    /* Queues an alert unless the listing already alerted this saved search */
+    @Modifying
+    @Query(value = "INSERT INTO saved_search_alerts (saved_search_id, listing_id, created_at) " +
+            "VALUES (:savedSearchId, :listingId, :createdAt) " +
+            "ON CONFLICT ON CONSTRAINT uk_saved_search_alert DO NOTHING", nativeQuery = true)
+    int enqueue(@Param("savedSearchId") Integer savedSearchId,
+                @Param("listingId") Integer listingId,
+                @Param("createdAt") Instant createdAt);
+
+    /* Oldest pending alerts, with their saved search, tenant and user loaded for the email */
+    @Query("SELECT a FROM SavedSearchAlert a " +
+            "JOIN FETCH a.savedSearch s JOIN FETCH s.tenant t JOIN FETCH t.user " +
+            "WHERE a.sentAt IS NULL ORDER BY a.id")
+    List<SavedSearchAlert> findPending(Limit limit);
+
+    @Modifying
+    @Query("UPDATE SavedSearchAlert a SET a.sentAt = :sentAt WHERE a.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") Instant sentAt);
+}
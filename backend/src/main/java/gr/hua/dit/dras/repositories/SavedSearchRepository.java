@@ -0,0 +1,15 @@
+package gr.hua.dit.dras.repositories;
+
+/* imports */
+import gr.hua.dit.dras.entities.SavedSearch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface SavedSearchRepository extends JpaRepository<SavedSearch, Integer> {
+
+    List<SavedSearch> findByTenantIdOrderByCreatedAtDesc(Integer tenantId);
+
+    long countByTenantId(Integer tenantId);
+}
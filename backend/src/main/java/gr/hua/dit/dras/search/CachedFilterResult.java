@@ -0,0 +1,34 @@
+package gr.hua.dit.dras.search;
+
+/* imports */
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Ordered listing ids of one cached filter result (a page or the full result).
+ * Entities are not cached; they are reloaded by primary key on a hit.
+ */
+public class CachedFilterResult {
+
+    private final List<Integer> ids;
+    private final BitSet members = new BitSet();
+    private final String nextCursor;
+
+    public CachedFilterResult(List<Integer> ids, String nextCursor) {
+        this.ids = List.copyOf(ids);
+        this.nextCursor = nextCursor;
+        this.ids.forEach(members::set);
+    }
+
+    public List<Integer> getIds() {
+        return ids;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean contains(Integer id) {
+        return members.get(id);
+    }
+}
@@ -0,0 +1,81 @@
+package gr.hua.dit.dras.search;
+
+/* imports */
+import gr.hua.dit.dras.dto.ListingFacetsDTO;
+import gr.hua.dit.dras.model.enums.PropertyType;
+import gr.hua.dit.dras.model.enums.RentalDuration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Accumulates all facet counts of a result in a single pass over its rows.
+ */
+public class FacetCounter {
+
+    /* Lower bounds of the monthly price bands, in euro */
+    private static final int[] PRICE_BANDS = {0, 300, 500, 800, 1200, 2000};
+
+    private long total = 0;
+    private final Map<PropertyType, Long> propertyTypes = new EnumMap<>(PropertyType.class);
+    private final long[] priceBands = new long[PRICE_BANDS.length];
+    private final Map<Integer, Long> rooms = new TreeMap<>();
+    private final Map<RentalDuration, Long> rentalDurations = new EnumMap<>(RentalDuration.class);
+    private long external = 0;
+
+    public void add(ListingIndexRow row) {
+        total++;
+        if (row.getPropertyType() != null) {
+            propertyTypes.merge(row.getPropertyType(), 1L, Long::sum);
+        }
+        if (row.getPrice() != null) {
+            priceBands[bandOf(row.getPrice())]++;
+        }
+        if (row.getRooms() != null) {
+            rooms.merge(row.getRooms(), 1L, Long::sum);
+        }
+        if (row.getRentalDuration() != null) {
+            rentalDurations.merge(row.getRentalDuration(), 1L, Long::sum);
+        }
+        if (row.isExternal()) {
+            external++;
+        }
+    }
+
+    public ListingFacetsDTO toDTO() {
+        Map<String, Long> bands = new LinkedHashMap<>();
+        for (int i = 0; i < PRICE_BANDS.length; i++) {
+            if (priceBands[i] > 0) {
+                bands.put(bandLabel(i), priceBands[i]);
+            }
+        }
+
+        return new ListingFacetsDTO(
+                total,
+                Collections.unmodifiableMap(propertyTypes),
+                Collections.unmodifiableMap(bands),
+                Collections.unmodifiableMap(rooms),
+                Collections.unmodifiableMap(rentalDurations),
+                external,
+                total - external
+        );
+    }
+
+    private static int bandOf(int price) {
+        for (int i = PRICE_BANDS.length - 1; i > 0; i--) {
+            if (price >= PRICE_BANDS[i]) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private static String bandLabel(int band) {
+        if (band == PRICE_BANDS.length - 1) {
+            return PRICE_BANDS[band] + "+";
+        }
+        return PRICE_BANDS[band] + "-" + (PRICE_BANDS[band + 1] - 1);
+    }
+}
@@ -0,0 +1,558 @@
+package gr.hua.dit.dras.search;
+
+/* imports */
+import gr.hua.dit.dras.dto.ListingFilterDTO;
+import gr.hua.dit.dras.geo.GeoDistance;
+import gr.hua.dit.dras.model.enums.ListingStatus;
+import gr.hua.dit.dras.model.enums.PropertyType;
+import gr.hua.dit.dras.model.enums.RentalDuration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory bitmap index over the filterable listing columns.
+ * Every indexed value maps to a bitmap of listing ids, so a filter is
+ * answered by intersecting bitmaps instead of scanning the listings table.
+ * Listing ids come from an identity column and are dense, which keeps
+ * plain {@link BitSet}s compact.
+ */
+public class ListingBitmapIndex {
+
+    /* Bucket widths for the numeric columns */
+    static final int PRICE_BUCKET = 100;
+    static final int PRICE_PER_M2_BUCKET = 5;
+    static final int SIZE_BUCKET = 25;
+    static final int ROOMS_BUCKET = 1;
+
+    /* Side of a spatial grid cell, in degrees (about 1.1 x 0.9 km in Greece) */
+    static final double GEO_CELL = 0.01;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final BitSet all = new BitSet();
+    private final BitSet external = new BitSet();
+    private final Map<PropertyType, BitSet> byType = new EnumMap<>(PropertyType.class);
+    private final Map<ListingStatus, BitSet> byStatus = new EnumMap<>(ListingStatus.class);
+    private final Map<RentalDuration, BitSet> byDuration = new EnumMap<>(RentalDuration.class);
+    private final Map<String, BitSet> byMunicipality = new HashMap<>();
+    private final Map<String, BitSet> byDistrict = new HashMap<>();
+    private final RangeBitmap prices = new RangeBitmap(PRICE_BUCKET);
+    private final RangeBitmap pricesPerM2 = new RangeBitmap(PRICE_PER_M2_BUCKET);
+    private final RangeBitmap sizes = new RangeBitmap(SIZE_BUCKET);
+    private final RangeBitmap rooms = new RangeBitmap(ROOMS_BUCKET);
+    private final GeoGrid grid = new GeoGrid(GEO_CELL);
+
+    /* Currently indexed values, needed to clear the right bits on update */
+    private final Map<Integer, ListingIndexRow> rows = new HashMap<>();
+
+    /**
+     * Returns true if every criterion of the filter can be answered by the index.
+     */
+    public static boolean canAnswer(ListingFilterDTO filter) {
+        return isBlank(filter.getTitle())
+                && filter.getUpdatedAfter() == null
+                && filter.getUpdatedBefore() == null;
+    }
+
+    /**
+     * Evaluates the indexed criteria of the filter against a single row.
+     * Gives the same answer as {@link #match} would for that row.
+     */
+    public static boolean matches(ListingIndexRow row, ListingFilterDTO filter) {
+        return (filter.getType() == null || filter.getType() == row.getPropertyType())
+                && (filter.getStatus() == null || filter.getStatus() == row.getStatus())
+                && (filter.getRentalDuration() == null || filter.getRentalDuration() == row.getRentalDuration())
+                && (!Boolean.TRUE.equals(filter.getExternalOnly()) || row.isExternal())
+                && inRange(row.getPrice(), filter.getMinPrice(), filter.getMaxPrice())
+                && inRange(row.getPricePerM2(), filter.getMinPricePerM2(), filter.getMaxPricePerM2())
+                && inRange(row.getSizeM2(), filter.getMinSize(), filter.getMaxSize())
+                && inRange(row.getRooms(), filter.getMinBedrooms(), filter.getMaxBedrooms())
+                && (isBlank(filter.getMunicipality()) || areaKey(filter.getMunicipality()).equals(areaKey(row.getMunicipality())))
+                && (isBlank(filter.getDistrict()) || areaKey(filter.getDistrict()).equals(areaKey(row.getDistrict())))
+                && inArea(row, filter);
+    }
+
+    /**
+     * Returns true if the filter restricts listings by radius or bounding box.
+     */
+    public static boolean hasArea(ListingFilterDTO filter) {
+        return filter.getRadiusKm() != null
+                || filter.getMinLatitude() != null || filter.getMaxLatitude() != null
+                || filter.getMinLongitude() != null || filter.getMaxLongitude() != null;
+    }
+
+    /**
+     * Evaluates the radius and bounding-box criteria against a row's coordinates.
+     * Listings without coordinates never match an area.
+     */
+    public static boolean inArea(ListingIndexRow row, ListingFilterDTO filter) {
+        if (!hasArea(filter)) {
+            return true;
+        }
+        Double lat = row.getLatitude();
+        Double lon = row.getLongitude();
+        if (lat == null || lon == null) {
+            return false;
+        }
+        if ((filter.getMinLatitude() != null && lat < filter.getMinLatitude())
+                || (filter.getMaxLatitude() != null && lat > filter.getMaxLatitude())
+                || (filter.getMinLongitude() != null && lon < filter.getMinLongitude())
+                || (filter.getMaxLongitude() != null && lon > filter.getMaxLongitude())) {
+            return false;
+        }
+        return filter.getRadiusKm() == null
+                || GeoDistance.distanceKm(filter.getLatitude(), filter.getLongitude(), lat, lon) <= filter.getRadiusKm();
+    }
+
+    /**
+     * Returns the currently indexed values of a listing, or null if it is not indexed.
+     */
+    public ListingIndexRow get(Integer id) {
+        lock.readLock().lock();
+        try {
+            return rows.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a listing to the index, replacing any previously indexed values.
+     */
+    public void put(ListingIndexRow row) {
+        lock.writeLock().lock();
+        try {
+            ListingIndexRow previous = rows.put(row.getId(), row);
+            if (previous != null) {
+                unindex(previous);
+            }
+            index(row);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Integer id) {
+        lock.writeLock().lock();
+        try {
+            ListingIndexRow previous = rows.remove(id);
+            if (previous != null) {
+                unindex(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            rows.clear();
+            all.clear();
+            external.clear();
+            byType.clear();
+            byStatus.clear();
+            byDuration.clear();
+            byMunicipality.clear();
+            byDistrict.clear();
+            grid.clear();
+            prices.clear();
+            pricesPerM2.clear();
+            sizes.clear();
+            rooms.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rows.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of all listings matching the indexed criteria of the filter.
+     * Criteria the index does not cover are ignored; see {@link #canAnswer}.
+     */
+    public BitSet match(ListingFilterDTO filter) {
+        lock.readLock().lock();
+        try {
+            BitSet result = (BitSet) all.clone();
+
+            if (filter.getType() != null) {
+                result.and(bitmap(byType, filter.getType()));
+            }
+            if (filter.getStatus() != null) {
+                result.and(bitmap(byStatus, filter.getStatus()));
+            }
+            if (filter.getRentalDuration() != null) {
+                result.and(bitmap(byDuration, filter.getRentalDuration()));
+            }
+            if (Boolean.TRUE.equals(filter.getExternalOnly())) {
+                result.and(external);
+            }
+            if (filter.getMinPrice() != null || filter.getMaxPrice() != null) {
+                result.and(prices.range(filter.getMinPrice(), filter.getMaxPrice()));
+            }
+            if (filter.getMinPricePerM2() != null || filter.getMaxPricePerM2() != null) {
+                result.and(pricesPerM2.range(filter.getMinPricePerM2(), filter.getMaxPricePerM2()));
+            }
+            if (filter.getMinSize() != null || filter.getMaxSize() != null) {
+                result.and(sizes.range(filter.getMinSize(), filter.getMaxSize()));
+            }
+            if (filter.getMinBedrooms() != null || filter.getMaxBedrooms() != null) {
+                result.and(rooms.range(filter.getMinBedrooms(), filter.getMaxBedrooms()));
+            }
+            if (!isBlank(filter.getMunicipality())) {
+                result.and(bitmap(byMunicipality, areaKey(filter.getMunicipality())));
+            }
+            if (!isBlank(filter.getDistrict())) {
+                result.and(bitmap(byDistrict, areaKey(filter.getDistrict())));
+            }
+            if (hasArea(filter)) {
+                result.and(area(filter));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} ids from the candidates, in (updatedAt DESC, id DESC)
+     * order and strictly after the given cursor. Keeps a bounded heap, so the
+     * cost is linear in the number of candidates and no rows are sorted in full.
+     */
+    public List<ListingCursor> page(BitSet candidates, ListingCursor after, int limit) {
+        lock.readLock().lock();
+        try {
+            /* Heap head is the position that would be served last */
+            PriorityQueue<ListingCursor> heap = new PriorityQueue<>(limit + 1, Comparator.reverseOrder());
+
+            for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+                ListingIndexRow row = rows.get(id);
+                if (row == null) {
+                    continue;
+                }
+
+                ListingCursor position = row.cursor();
+                if (after != null && position.compareTo(after) <= 0) {
+                    continue;
+                }
+
+                heap.offer(position);
+                if (heap.size() > limit) {
+                    heap.poll();
+                }
+            }
+
+            List<ListingCursor> page = new ArrayList<>(heap);
+            page.sort(Comparator.naturalOrder());
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts every facet over the given ids in one pass; ids not in the index are skipped.
+     */
+    public FacetCounter facets(BitSet ids) {
+        lock.readLock().lock();
+        try {
+            FacetCounter counter = new FacetCounter();
+            for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+                ListingIndexRow row = rows.get(id);
+                if (row != null) {
+                    counter.add(row);
+                }
+            }
+            return counter;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Listings inside the filter's area: grid cells of the bounding box,
+     * refined against the exact coordinates.
+     */
+    private BitSet area(ListingFilterDTO filter) {
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+
+        if (filter.getRadiusKm() != null) {
+            double latSpan = GeoDistance.latitudeSpan(filter.getRadiusKm());
+            double lonSpan = GeoDistance.longitudeSpan(filter.getLatitude(), filter.getRadiusKm());
+            minLat = filter.getLatitude() - latSpan;
+            maxLat = filter.getLatitude() + latSpan;
+            minLon = filter.getLongitude() - lonSpan;
+            maxLon = filter.getLongitude() + lonSpan;
+        }
+        if (filter.getMinLatitude() != null) {
+            minLat = Math.max(minLat, filter.getMinLatitude());
+        }
+        if (filter.getMaxLatitude() != null) {
+            maxLat = Math.min(maxLat, filter.getMaxLatitude());
+        }
+        if (filter.getMinLongitude() != null) {
+            minLon = Math.max(minLon, filter.getMinLongitude());
+        }
+        if (filter.getMaxLongitude() != null) {
+            maxLon = Math.min(maxLon, filter.getMaxLongitude());
+        }
+
+        BitSet result = grid.box(minLat, maxLat, minLon, maxLon);
+        for (int id = result.nextSetBit(0); id >= 0; id = result.nextSetBit(id + 1)) {
+            ListingIndexRow row = rows.get(id);
+            if (row == null || !inArea(row, filter)) {
+                result.clear(id);
+            }
+        }
+        return result;
+    }
+
+    private void index(ListingIndexRow row) {
+        int id = row.getId();
+        all.set(id);
+        if (row.isExternal()) {
+            external.set(id);
+        }
+        if (row.getPropertyType() != null) {
+            byType.computeIfAbsent(row.getPropertyType(), k -> new BitSet()).set(id);
+        }
+        if (row.getStatus() != null) {
+            byStatus.computeIfAbsent(row.getStatus(), k -> new BitSet()).set(id);
+        }
+        if (row.getRentalDuration() != null) {
+            byDuration.computeIfAbsent(row.getRentalDuration(), k -> new BitSet()).set(id);
+        }
+        prices.add(id, row.getPrice());
+        pricesPerM2.add(id, row.getPricePerM2());
+        sizes.add(id, row.getSizeM2());
+        rooms.add(id, row.getRooms());
+        if (row.getMunicipality() != null) {
+            byMunicipality.computeIfAbsent(areaKey(row.getMunicipality()), k -> new BitSet()).set(id);
+        }
+        if (row.getDistrict() != null) {
+            byDistrict.computeIfAbsent(areaKey(row.getDistrict()), k -> new BitSet()).set(id);
+        }
+        grid.add(id, row.getLatitude(), row.getLongitude());
+    }
+
+    private void unindex(ListingIndexRow row) {
+        int id = row.getId();
+        all.clear(id);
+        external.clear(id);
+        if (row.getPropertyType() != null) {
+            bitmap(byType, row.getPropertyType()).clear(id);
+        }
+        if (row.getStatus() != null) {
+            bitmap(byStatus, row.getStatus()).clear(id);
+        }
+        if (row.getRentalDuration() != null) {
+            bitmap(byDuration, row.getRentalDuration()).clear(id);
+        }
+        prices.remove(id, row.getPrice());
+        pricesPerM2.remove(id, row.getPricePerM2());
+        sizes.remove(id, row.getSizeM2());
+        rooms.remove(id, row.getRooms());
+        if (row.getMunicipality() != null) {
+            bitmap(byMunicipality, areaKey(row.getMunicipality())).clear(id);
+        }
+        if (row.getDistrict() != null) {
+            bitmap(byDistrict, areaKey(row.getDistrict())).clear(id);
+        }
+        grid.remove(id, row.getLatitude(), row.getLongitude());
+    }
+
+    private static <K> BitSet bitmap(Map<K, BitSet> bitmaps, K key) {
+        BitSet bitmap = bitmaps.get(key);
+        return bitmap != null ? bitmap : new BitSet();
+    }
+
+    private static boolean inRange(Integer value, Integer min, Integer max) {
+        if (min == null && max == null) {
+            return true;
+        }
+        return value != null && (min == null || value >= min) && (max == null || value <= max);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /* Same case-insensitive comparison as the Specification's lower(...) = ... */
+    private static String areaKey(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Uniform grid over latitude/longitude, each cell holding a bitmap of ids.
+     * Listings without coordinates are not in the grid.
+     */
+    private static final class GeoGrid {
+
+        private final double cell;
+        private final Map<Long, BitSet> cells = new HashMap<>();
+
+        GeoGrid(double cell) {
+            this.cell = cell;
+        }
+
+        void add(int id, Double lat, Double lon) {
+            if (lat != null && lon != null) {
+                cells.computeIfAbsent(key(cellOf(lat), cellOf(lon)), k -> new BitSet()).set(id);
+            }
+        }
+
+        void remove(int id, Double lat, Double lon) {
+            if (lat != null && lon != null) {
+                BitSet bitmap = cells.get(key(cellOf(lat), cellOf(lon)));
+                if (bitmap != null) {
+                    bitmap.clear(id);
+                }
+            }
+        }
+
+        void clear() {
+            cells.clear();
+        }
+
+        /**
+         * Ids in every cell overlapping the box; a superset of the listings inside it.
+         */
+        BitSet box(double minLat, double maxLat, double minLon, double maxLon) {
+            BitSet result = new BitSet();
+            if (minLat > maxLat || minLon > maxLon) {
+                return result;
+            }
+
+            int lowLat = cellOf(minLat), highLat = cellOf(maxLat);
+            int lowLon = cellOf(minLon), highLon = cellOf(maxLon);
+
+            /* Wide boxes walk the occupied cells instead of every cell in range */
+            long boxCells = (long) (highLat - lowLat + 1) * (highLon - lowLon + 1);
+            if (boxCells > cells.size()) {
+                cells.forEach((key, bitmap) -> {
+                    int latCell = (int) (key >> 32);
+                    int lonCell = (int) (long) key;
+                    if (latCell >= lowLat && latCell <= highLat && lonCell >= lowLon && lonCell <= highLon) {
+                        result.or(bitmap);
+                    }
+                });
+                return result;
+            }
+
+            for (int latCell = lowLat; latCell <= highLat; latCell++) {
+                for (int lonCell = lowLon; lonCell <= highLon; lonCell++) {
+                    BitSet bitmap = cells.get(key(latCell, lonCell));
+                    if (bitmap != null) {
+                        result.or(bitmap);
+                    }
+                }
+            }
+            return result;
+        }
+
+        private int cellOf(double degrees) {
+            return (int) Math.floor(degrees / cell);
+        }
+
+        private static long key(int latCell, int lonCell) {
+            return ((long) latCell << 32) | (lonCell & 0xffffffffL);
+        }
+    }
+
+    /**
+     * Numeric column split into fixed-width buckets, each holding a bitmap of ids.
+     * Buckets fully inside a range are OR-ed as a whole; only the two edge
+     * buckets are refined against the exact values.
+     */
+    private static final class RangeBitmap {
+
+        private final int width;
+        private final List<BitSet> buckets = new ArrayList<>();
+        private int[] values = new int[1024];
+
+        RangeBitmap(int width) {
+            this.width = width;
+        }
+
+        void add(int id, Integer value) {
+            if (value == null) {
+                return;
+            }
+            int bucket = bucketOf(value);
+            while (buckets.size() <= bucket) {
+                buckets.add(new BitSet());
+            }
+            buckets.get(bucket).set(id);
+
+            if (id >= values.length) {
+                values = Arrays.copyOf(values, Math.max(id + 1, values.length * 2));
+            }
+            values[id] = value;
+        }
+
+        void remove(int id, Integer value) {
+            if (value == null) {
+                return;
+            }
+            int bucket = bucketOf(value);
+            if (bucket < buckets.size()) {
+                buckets.get(bucket).clear(id);
+            }
+        }
+
+        void clear() {
+            buckets.clear();
+        }
+
+        BitSet range(Integer min, Integer max) {
+            BitSet result = new BitSet();
+            if (buckets.isEmpty() || (min != null && max != null && min > max)) {
+                return result;
+            }
+
+            int low = min == null ? 0 : bucketOf(min);
+            int high = max == null ? buckets.size() - 1 : Math.min(bucketOf(max), buckets.size() - 1);
+
+            for (int b = low; b <= high; b++) {
+                BitSet bucket = buckets.get(b);
+                boolean edge = (min != null && b == low) || (max != null && b == high);
+
+                if (!edge) {
+                    result.or(bucket);
+                    continue;
+                }
+
+                /* Edge buckets are checked value by value */
+                for (int id = bucket.nextSetBit(0); id >= 0; id = bucket.nextSetBit(id + 1)) {
+                    int value = values[id];
+                    if ((min == null || value >= min) && (max == null || value <= max)) {
+                        result.set(id);
+                    }
+                }
+            }
+            return result;
+        }
+
+        private int bucketOf(int value) {
+            return Math.max(0, value) / width;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package gr.hua.dit.dras.search;
+
+/* imports */
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in the (updatedAt DESC, id DESC) listing order.
+ * Encoded as an opaque URL-safe token so clients cannot depend on its shape.
+ */
+public class ListingCursor implements Comparable<ListingCursor> {
+
+    private final Instant updatedAt;
+    private final Integer id;
+
+    public ListingCursor(Instant updatedAt, Integer id) {
+        this.updatedAt = updatedAt != null ? updatedAt : Instant.EPOCH;
+        this.id = id;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = updatedAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}; returns null for a missing cursor.
+     */
+    public static ListingCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Missing separator");
+            }
+            return new ListingCursor(
+                    Instant.parse(raw.substring(0, separator)),
+                    Integer.valueOf(raw.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid page cursor");
+        }
+    }
+
+    /**
+     * Orders positions the way pages are served: newest first, then highest id.
+     */
+    @Override
+    public int compareTo(ListingCursor other) {
+        int byTime = other.updatedAt.compareTo(updatedAt);
+        return byTime != 0 ? byTime : other.id.compareTo(id);
+    }
+}
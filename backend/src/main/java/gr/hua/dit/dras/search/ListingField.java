@@ -0,0 +1,111 @@
+package gr.hua.dit.dras.search;
+
+/* imports */
+import gr.hua.dit.dras.dto.ListingCardDTO;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Fields selectable through the {@code fields=} parameter of the listings API.
+ * Card fields are served straight from the {@link ListingCardDTO} page; the
+ * others are selected in one extra projection query, and only when requested.
+ */
+public enum ListingField {
+
+    ID("id", "id", ListingCardDTO::getId),
+    TITLE("title", "title", ListingCardDTO::getTitle),
+    SUBTITLE("subtitle", "subtitle", null),
+    DESCRIPTION("description", "description", null),
+    PRICE("price", "price", ListingCardDTO::getPrice),
+    PRICE_PER_M2("pricePerM2", "pricePerM2", ListingCardDTO::getPricePerM2),
+    SIZE_M2("sizeM2", "sizeM2", ListingCardDTO::getSizeM2),
+    ROOMS("rooms", "rooms", ListingCardDTO::getRooms),
+    PROPERTY_TYPE("propertyType", "propertyType", ListingCardDTO::getPropertyType),
+    RENTAL_DURATION("rentalDuration", "rentalDuration", null),
+    STATUS("status", "status", ListingCardDTO::getStatus),
+    EXTERNAL("external", "external", ListingCardDTO::isExternal),
+    ADDRESS("address", "address", null),
+    MUNICIPALITY("municipality", "municipality", null),
+    DISTRICT("district", "district", null),
+    LATITUDE("latitude", "latitude", null),
+    LONGITUDE("longitude", "longitude", null),
+    IMAGE_URL("imageUrl", null, ListingCardDTO::getImageUrl),
+    IMAGES("images", null, null),
+    UPDATED_AT("updatedAt", "updatedAt", ListingCardDTO::getUpdatedAt);
+
+    /* Served when no fields are requested */
+    public static final Set<ListingField> DEFAULT = Collections.unmodifiableSet(EnumSet.of(
+            ID, TITLE, PRICE, PRICE_PER_M2, SIZE_M2, ROOMS, PROPERTY_TYPE, STATUS, EXTERNAL, IMAGE_URL, UPDATED_AT));
+
+    /* Left out for anonymous callers: the exact location and the owner's own text */
+    public static final Set<ListingField> RESTRICTED = Collections.unmodifiableSet(EnumSet.of(
+            DESCRIPTION, ADDRESS, LATITUDE, LONGITUDE));
+
+    private final String fieldName;
+    private final String attribute;
+    private final Function<ListingCardDTO, Object> fromCard;
+
+    ListingField(String fieldName, String attribute, Function<ListingCardDTO, Object> fromCard) {
+        this.fieldName = fieldName;
+        this.attribute = attribute;
+        this.fromCard = fromCard;
+    }
+
+    /**
+     * Parses a comma-separated field list such as "id,price,pricePerM2".
+     * Blank selects {@link #DEFAULT}; an unknown name is a bad request.
+     */
+    public static Set<ListingField> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return DEFAULT;
+        }
+
+        Set<ListingField> selected = EnumSet.noneOf(ListingField.class);
+        for (String name : fields.split(",")) {
+            if (name.isBlank()) {
+                continue;
+            }
+            selected.add(byName(name.trim()));
+        }
+        return selected.isEmpty() ? DEFAULT : selected;
+    }
+
+    /**
+     * The selected fields an anonymous caller may read; {@link #DEFAULT} if none is left.
+     */
+    public static Set<ListingField> anonymous(Set<ListingField> selected) {
+        Set<ListingField> allowed = EnumSet.copyOf(selected);
+        allowed.removeAll(RESTRICTED);
+        return allowed.isEmpty() ? DEFAULT : allowed;
+    }
+
+    private static ListingField byName(String name) {
+        for (ListingField field : values()) {
+            if (field.fieldName.equals(name)) {
+                return field;
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown field: " + name);
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    /* Entity attribute selected for this field, or null for the image fields */
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public boolean isOnCard() {
+        return fromCard != null;
+    }
+
+    public Object valueOf(ListingCardDTO card) {
+        return fromCard.apply(card);
+    }
+}
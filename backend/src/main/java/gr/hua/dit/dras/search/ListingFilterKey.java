@@ -0,0 +1,85 @@
+package gr.hua.dit.dras.search;
+
+/* imports */
+import gr.hua.dit.dras.dto.ListingFilterDTO;
+import java.util.Locale;
+
+/**
+ * Canonical string form of a {@link ListingFilterDTO}, used as a cache key.
+ * Strings are trimmed, lower-cased and whitespace-collapsed; nulls, blanks and
+ * criteria that do not affect the result (externalOnly=false) are left out,
+ * so equivalent filters map to the same key. The separators are percent-escaped
+ * in text values, so free text cannot pass for other criteria.
+ */
+public final class ListingFilterKey {
+
+    private ListingFilterKey() {
+    }
+
+    public static String of(ListingFilterDTO filter) {
+        StringBuilder key = new StringBuilder();
+        append(key, "title", text(filter.getTitle()));
+        append(key, "query", text(filter.getQuery()));
+        append(key, "minPrice", filter.getMinPrice());
+        append(key, "maxPrice", filter.getMaxPrice());
+        append(key, "minPricePerM2", filter.getMinPricePerM2());
+        append(key, "maxPricePerM2", filter.getMaxPricePerM2());
+        append(key, "minSize", filter.getMinSize());
+        append(key, "maxSize", filter.getMaxSize());
+        append(key, "type", filter.getType());
+        append(key, "status", filter.getStatus());
+        append(key, "rentalDuration", filter.getRentalDuration());
+        append(key, "municipality", text(filter.getMunicipality()));
+        append(key, "district", text(filter.getDistrict()));
+        /* A "near" place name is resolved into latitude/longitude before the key is built */
+        append(key, "lat", filter.getLatitude());
+        append(key, "lon", filter.getLongitude());
+        append(key, "radiusKm", filter.getRadiusKm());
+        append(key, "minLat", filter.getMinLatitude());
+        append(key, "maxLat", filter.getMaxLatitude());
+        append(key, "minLon", filter.getMinLongitude());
+        append(key, "maxLon", filter.getMaxLongitude());
+        append(key, "minRooms", filter.getMinBedrooms());
+        append(key, "maxRooms", filter.getMaxBedrooms());
+        append(key, "updatedAfter", filter.getUpdatedAfter());
+        append(key, "updatedBefore", filter.getUpdatedBefore());
+        append(key, "externalOnly", Boolean.TRUE.equals(filter.getExternalOnly()) ? Boolean.TRUE : null);
+        return key.toString();
+    }
+
+    private static void append(StringBuilder key, String name, Object value) {
+        if (value == null) {
+            return;
+        }
+        if (!key.isEmpty()) {
+            key.append('&');
+        }
+        key.append(name).append('=').append(value);
+    }
+
+    /**
+     * Escapes the characters that delimit a key: '&' and '=' between criteria, '|' before
+     * the parts callers add, and '%' itself.
+     */
+    public static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '%' -> escaped.append("%25");
+                case '&' -> escaped.append("%26");
+                case '=' -> escaped.append("%3D");
+                case '|' -> escaped.append("%7C");
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static String text(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return escape(value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT));
+    }
+}
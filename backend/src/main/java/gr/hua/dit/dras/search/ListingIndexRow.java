@@ -0,0 +1,121 @@
+package gr.hua.dit.dras.search;
+
+/* imports */
+import gr.hua.dit.dras.model.enums.ListingStatus;
+import gr.hua.dit.dras.model.enums.PropertyType;
+import gr.hua.dit.dras.model.enums.RentalDuration;
+import java.time.Instant;
+
+/**
+ * The subset of listing columns kept in the in-memory filter index.
+ * Loaded through a JPQL constructor expression, never as a full entity.
+ */
+public class ListingIndexRow {
+
+    private final Integer id;
+    private final PropertyType propertyType;
+    private final ListingStatus status;
+    private final boolean external;
+    private final RentalDuration rentalDuration;
+    private final Integer price;
+    private final Integer pricePerM2;
+    private final Integer sizeM2;
+    private final Integer rooms;
+    private final String municipality;
+    private final String district;
+    private final Double latitude;
+    private final Double longitude;
+    private final Instant updatedAt;
+
+    public ListingIndexRow(
+            Integer id,
+            PropertyType propertyType,
+            ListingStatus status,
+            boolean external,
+            RentalDuration rentalDuration,
+            Integer price,
+            Integer pricePerM2,
+            Integer sizeM2,
+            Integer rooms,
+            String municipality,
+            String district,
+            Double latitude,
+            Double longitude,
+            Instant updatedAt
+    ) {
+        this.id = id;
+        this.propertyType = propertyType;
+        this.status = status;
+        this.external = external;
+        this.rentalDuration = rentalDuration;
+        this.price = price;
+        this.pricePerM2 = pricePerM2;
+        this.sizeM2 = sizeM2;
+        this.rooms = rooms;
+        this.municipality = municipality;
+        this.district = district;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.updatedAt = updatedAt;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public PropertyType getPropertyType() {
+        return propertyType;
+    }
+
+    public ListingStatus getStatus() {
+        return status;
+    }
+
+    public boolean isExternal() {
+        return external;
+    }
+
+    public RentalDuration getRentalDuration() {
+        return rentalDuration;
+    }
+
+    public Integer getPrice() {
+        return price;
+    }
+
+    public Integer getPricePerM2() {
+        return pricePerM2;
+    }
+
+    public Integer getSizeM2() {
+        return sizeM2;
+    }
+
+    public Integer getRooms() {
+        return rooms;
+    }
+
+    public String getMunicipality() {
+        return municipality;
+    }
+
+    public String getDistrict() {
+        return district;
+    }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public ListingCursor cursor() {
+        return new ListingCursor(updatedAt, id);
+    }
+}
@@ -0,0 +1,274 @@
+package gr.hua.dit.dras.search;
+
+/* imports */
+import gr.hua.dit.dras.dto.ListingFilterDTO;
+import gr.hua.dit.dras.model.enums.PropertyType;
+import gr.hua.dit.dras.model.enums.RentalDuration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Predicate index over saved searches: the inverse of {@link ListingBitmapIndex}.
+ * Instead of asking which listings match a filter, it answers which saved
+ * searches a listing matches. Equality criteria live in hash buckets and
+ * ranges in bucketed interval bitmaps, so a listing is matched by a handful
+ * of bitmap intersections; only the surviving candidates are checked exactly.
+ * Saved search ids come from an identity column and are dense.
+ */
+public class SavedSearchIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Integer, ListingFilterDTO> searches = new HashMap<>();
+    private final BitSet all = new BitSet();
+    private final BitSet externalOnly = new BitSet();
+    private final Buckets<PropertyType> byType = new Buckets<>(new EnumMap<>(PropertyType.class));
+    private final Buckets<RentalDuration> byDuration = new Buckets<>(new EnumMap<>(RentalDuration.class));
+    private final Buckets<String> byMunicipality = new Buckets<>(new HashMap<>());
+    private final Buckets<String> byDistrict = new Buckets<>(new HashMap<>());
+
+    /* Bucket widths match the listing index; the caps are the entity's validation maxima */
+    private final IntervalBitmap prices = new IntervalBitmap(ListingBitmapIndex.PRICE_BUCKET, 20000);
+    private final IntervalBitmap pricesPerM2 = new IntervalBitmap(ListingBitmapIndex.PRICE_PER_M2_BUCKET, 200);
+    private final IntervalBitmap sizes = new IntervalBitmap(ListingBitmapIndex.SIZE_BUCKET, 1000);
+    private final IntervalBitmap rooms = new IntervalBitmap(ListingBitmapIndex.ROOMS_BUCKET, 20);
+
+    /**
+     * Adds a saved search, replacing any previous criteria under the same id.
+     */
+    public void put(int id, ListingFilterDTO filter) {
+        lock.writeLock().lock();
+        try {
+            ListingFilterDTO previous = searches.put(id, filter);
+            if (previous != null) {
+                unindex(id, previous);
+            }
+            index(id, filter);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            ListingFilterDTO previous = searches.remove(id);
+            if (previous != null) {
+                unindex(id, previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            searches.clear();
+            all.clear();
+            externalOnly.clear();
+            byType.clear();
+            byDuration.clear();
+            byMunicipality.clear();
+            byDistrict.clear();
+            prices.clear();
+            pricesPerM2.clear();
+            sizes.clear();
+            rooms.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return searches.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of the saved searches the listing matches.
+     */
+    public List<Integer> match(ListingIndexRow row) {
+        lock.readLock().lock();
+        try {
+            BitSet candidates = (BitSet) all.clone();
+
+            candidates.and(byType.lookup(row.getPropertyType()));
+            candidates.and(byDuration.lookup(row.getRentalDuration()));
+            candidates.and(byMunicipality.lookup(areaKey(row.getMunicipality())));
+            candidates.and(byDistrict.lookup(areaKey(row.getDistrict())));
+            if (!row.isExternal()) {
+                candidates.andNot(externalOnly);
+            }
+            candidates.and(prices.stab(row.getPrice()));
+            candidates.and(pricesPerM2.stab(row.getPricePerM2()));
+            candidates.and(sizes.stab(row.getSizeM2()));
+            candidates.and(rooms.stab(row.getRooms()));
+
+            /* Exact check: bucket edges, status and radius */
+            List<Integer> matches = new ArrayList<>();
+            for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+                if (ListingBitmapIndex.matches(row, searches.get(id))) {
+                    matches.add(id);
+                }
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void index(int id, ListingFilterDTO filter) {
+        all.set(id);
+        if (Boolean.TRUE.equals(filter.getExternalOnly())) {
+            externalOnly.set(id);
+        }
+        byType.add(id, filter.getType());
+        byDuration.add(id, filter.getRentalDuration());
+        byMunicipality.add(id, areaKey(filter.getMunicipality()));
+        byDistrict.add(id, areaKey(filter.getDistrict()));
+        prices.add(id, filter.getMinPrice(), filter.getMaxPrice());
+        pricesPerM2.add(id, filter.getMinPricePerM2(), filter.getMaxPricePerM2());
+        sizes.add(id, filter.getMinSize(), filter.getMaxSize());
+        rooms.add(id, filter.getMinBedrooms(), filter.getMaxBedrooms());
+    }
+
+    private void unindex(int id, ListingFilterDTO filter) {
+        all.clear(id);
+        externalOnly.clear(id);
+        byType.remove(id, filter.getType());
+        byDuration.remove(id, filter.getRentalDuration());
+        byMunicipality.remove(id, areaKey(filter.getMunicipality()));
+        byDistrict.remove(id, areaKey(filter.getDistrict()));
+        prices.remove(id, filter.getMinPrice(), filter.getMaxPrice());
+        pricesPerM2.remove(id, filter.getMinPricePerM2(), filter.getMaxPricePerM2());
+        sizes.remove(id, filter.getMinSize(), filter.getMaxSize());
+        rooms.remove(id, filter.getMinBedrooms(), filter.getMaxBedrooms());
+    }
+
+    private static String areaKey(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Equality criterion: one bitmap per value, plus the searches that accept any value.
+     */
+    private static final class Buckets<K> {
+
+        private final Map<K, BitSet> byValue;
+        private final BitSet any = new BitSet();
+
+        Buckets(Map<K, BitSet> byValue) {
+            this.byValue = byValue;
+        }
+
+        void add(int id, K value) {
+            if (value == null) {
+                any.set(id);
+            } else {
+                byValue.computeIfAbsent(value, k -> new BitSet()).set(id);
+            }
+        }
+
+        void remove(int id, K value) {
+            if (value == null) {
+                any.clear(id);
+            } else if (byValue.containsKey(value)) {
+                byValue.get(value).clear(id);
+            }
+        }
+
+        void clear() {
+            byValue.clear();
+            any.clear();
+        }
+
+        /* Searches accepting the value; a listing without a value only matches "any" */
+        BitSet lookup(K value) {
+            BitSet result = (BitSet) any.clone();
+            if (value != null && byValue.containsKey(value)) {
+                result.or(byValue.get(value));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Range criterion split into fixed-width buckets: every bucket holds the
+     * searches whose interval overlaps it, so a stabbing query is one lookup.
+     * Values above the cap share the last bucket.
+     */
+    private static final class IntervalBitmap {
+
+        private final int width;
+        private final BitSet[] buckets;
+        private final BitSet unbounded = new BitSet();
+
+        IntervalBitmap(int width, int cap) {
+            this.width = width;
+            this.buckets = new BitSet[cap / width + 1];
+            for (int b = 0; b < buckets.length; b++) {
+                buckets[b] = new BitSet();
+            }
+        }
+
+        void add(int id, Integer min, Integer max) {
+            if (min == null && max == null) {
+                unbounded.set(id);
+                return;
+            }
+            for (int b = low(min); b <= high(max); b++) {
+                buckets[b].set(id);
+            }
+        }
+
+        void remove(int id, Integer min, Integer max) {
+            if (min == null && max == null) {
+                unbounded.clear(id);
+                return;
+            }
+            for (int b = low(min); b <= high(max); b++) {
+                buckets[b].clear(id);
+            }
+        }
+
+        void clear() {
+            unbounded.clear();
+            for (BitSet bucket : buckets) {
+                bucket.clear();
+            }
+        }
+
+        /* Searches whose interval may contain the value; exact at the bucket level */
+        BitSet stab(Integer value) {
+            BitSet result = (BitSet) unbounded.clone();
+            if (value != null) {
+                result.or(buckets[bucketOf(value)]);
+            }
+            return result;
+        }
+
+        private int low(Integer min) {
+            return min == null ? 0 : bucketOf(min);
+        }
+
+        private int high(Integer max) {
+            return max == null ? buckets.length - 1 : bucketOf(max);
+        }
+
+        private int bucketOf(int value) {
+            return Math.min(Math.max(0, value) / width, buckets.length - 1);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package gr.hua.dit.dras.search;
+
+/**
+ * A full-text hit: listing id and its ts_rank_cd relevance.
+ */
+public interface TextMatch {
+
+    Integer getId();
+
+    Float getRank();
+}
@@ -0,0 +1,127 @@
+package gr.hua.dit.dras.services;
+
+/* imports */
+import gr.hua.dit.dras.imports.ListingCsvReader;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Picks up scraper CSV snapshots dropped into {@code dras.import.csv.drop-dir} and loads them
+ * through {@link ExternalListingImportService#importCsvSnapshot}, oldest name first.
+ * Loaded files are moved to {@code processed/} and failed ones to {@code failed/} under the
+ * drop directory. A file is only picked up once it has not been modified for a whole poll
+ * interval, so snapshots still being copied in are left alone. Disabled when no directory is set.
+ * Loads run on their own thread, so a long COPY does not hold up the other scheduled jobs, and
+ * a poll that finds the previous batch still loading leaves the directory alone. Every file
+ * loaded is remembered by name and modification time until it leaves the drop directory, so
+ * a snapshot that could not be moved away is not loaded again.
+ */
+@Service
+public class CsvSnapshotWatcher {
+
+    private final ExternalListingImportService importService;
+    private final Path dropDirectory;
+    private final Duration settleTime;
+
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("csv-snapshot-", 0).factory());
+    private Future<?> loading;
+
+    /* Files loaded but still in the drop directory, with the modification time they were loaded at */
+    private final Map<Path, FileTime> loaded = new ConcurrentHashMap<>();
+
+    public CsvSnapshotWatcher(ExternalListingImportService importService,
+                              @Value("${dras.import.csv.drop-dir:}") String dropDirectory,
+                              @Value("${dras.import.csv.poll-ms:60000}") long pollMillis) {
+        this.importService = importService;
+        this.dropDirectory = dropDirectory.isBlank() ? null : Path.of(dropDirectory);
+        this.settleTime = Duration.ofMillis(pollMillis);
+    }
+
+    @Scheduled(fixedDelayString = "${dras.import.csv.poll-ms:60000}")
+    public void poll() {
+        if (dropDirectory == null || !Files.isDirectory(dropDirectory)) {
+            return;
+        }
+        if (loading != null && !loading.isDone()) {
+            return;
+        }
+
+        List<Path> present = new ArrayList<>();
+        List<Path> snapshots = new ArrayList<>();
+        Instant settled = Instant.now().minus(settleTime);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dropDirectory, "*.csv")) {
+            for (Path file : files) {
+                if (!Files.isRegularFile(file)) {
+                    continue;
+                }
+                present.add(file);
+                FileTime modified = Files.getLastModifiedTime(file);
+                if (modified.toInstant().isBefore(settled) && !modified.equals(loaded.get(file))) {
+                    snapshots.add(file);
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Could not list CSV drop directory " + dropDirectory + ": " + e.getMessage());
+            return;
+        }
+
+        /* Files moved away since, by us or by hand, are forgotten */
+        loaded.keySet().retainAll(present);
+
+        if (!snapshots.isEmpty()) {
+            snapshots.sort(null);
+            loading = loader.submit(() -> snapshots.forEach(this::load));
+        }
+    }
+
+    private void load(Path snapshot) {
+        try {
+            loaded.put(snapshot, Files.getLastModifiedTime(snapshot));
+        } catch (IOException e) {
+            System.out.println("Could not read CSV snapshot " + snapshot + ": " + e.getMessage());
+            return;
+        }
+
+        System.out.println("Loading CSV snapshot " + snapshot + ".");
+
+        String target;
+        try (ListingCsvReader reader = new ListingCsvReader(Files.newBufferedReader(snapshot, StandardCharsets.UTF_8))) {
+            importService.importCsvSnapshot(reader);
+            target = "processed";
+        } catch (Exception e) {
+            System.out.println("CSV snapshot " + snapshot + " failed: " + e.getMessage());
+            target = "failed";
+        }
+
+        try {
+            Path directory = Files.createDirectories(dropDirectory.resolve(target));
+            Files.move(snapshot, directory.resolve(snapshot.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.out.println("Could not move CSV snapshot " + snapshot + " to " + target + ": " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loader.shutdownNow();
+    }
+}
@@ -0,0 +1,183 @@
+package gr.hua.dit.dras.services;
+
+/* imports */
+import gr.hua.dit.dras.dto.ExternalListingDTO;
+import gr.hua.dit.dras.dto.ExternalListingDeltaDTO;
+import gr.hua.dit.dras.entities.ImportSource;
+import gr.hua.dit.dras.events.ListingsChangedEvent;
+import gr.hua.dit.dras.imports.ImportProgress;
+import gr.hua.dit.dras.repositories.ImportSourceRepository;
+import gr.hua.dit.dras.repositories.ListingBulkRepository;
+import gr.hua.dit.dras.repositories.ListingBulkRepository.DeleteResult;
+import gr.hua.dit.dras.repositories.ListingRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.stereotype.Service;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Applies incremental imports. Each source keeps a watermark; a scraper asks for it, sends the
+ * listings that changed since then together with tombstones for the ones that vanished, and the
+ * watermark moves forward once the delta is applied. Import volume then follows market churn
+ * rather than market size, and vanished listings go away with their tombstone instead of
+ * waiting for the scrape date cleanup, which leaves the listings of delta sources alone.
+ * A delta whose application fails keeps the old watermark; applying it again is harmless,
+ * since unchanged listings are only touched and tombstones of removed listings match nothing.
+ */
+@Service
+public class DeltaImportService {
+
+    private static final Pattern SOURCE_NAME = Pattern.compile("[A-Za-z0-9._-]{1,100}");
+
+    private final ExternalListingImportService importService;
+    private final ImportSourceRepository importSourceRepository;
+    private final ListingRepository listingRepository;
+    private final ListingBulkRepository listingBulkRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    public DeltaImportService(ExternalListingImportService importService,
+                              ImportSourceRepository importSourceRepository,
+                              ListingRepository listingRepository,
+                              ListingBulkRepository listingBulkRepository,
+                              ApplicationEventPublisher eventPublisher,
+                              PlatformTransactionManager transactionManager) {
+        this.importService = importService;
+        this.importSourceRepository = importSourceRepository;
+        this.listingRepository = listingRepository;
+        this.listingBulkRepository = listingBulkRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Returns the source with the given name, or null if it never sent a delta.
+     */
+    public ImportSource getSource(String name) {
+        return importSourceRepository.findById(name).orElse(null);
+    }
+
+    /**
+     * Applies a delta and advances the source watermark.
+     * Throws IllegalArgumentException for an invalid delta, and IllegalStateException if it does
+     * not start from the current watermark, in which case the scraper has to recompute it.
+     */
+    public ImportProgress applyDelta(String sourceName, ExternalListingDeltaDTO delta) {
+        ImportSource source = getSource(sourceName);
+        String urlPrefix = validate(sourceName, source, delta);
+
+        ImportProgress progress = importService.importExternalListings(delta.getUpserts());
+        removeTombstoned(delta.getTombstones(), progress);
+        advance(sourceName, urlPrefix, delta);
+
+        progress.finish();
+        System.out.println("Delta import of " + sourceName + " up to " + delta.getWatermark()
+                + " finished: " + progress + ".");
+        return progress;
+    }
+
+    private String validate(String sourceName, ImportSource source, ExternalListingDeltaDTO delta) {
+        if (!SOURCE_NAME.matcher(sourceName).matches()) {
+            throw new IllegalArgumentException("Invalid source name: " + sourceName);
+        }
+        if (delta.getWatermark() == null) {
+            throw new IllegalArgumentException("Missing watermark");
+        }
+        if (delta.getSince() != null && !delta.getWatermark().isAfter(delta.getSince())) {
+            throw new IllegalArgumentException("Watermark must be after " + delta.getSince());
+        }
+
+        Instant current = source == null ? null : source.getWatermark();
+        if (!Objects.equals(current, delta.getSince())) {
+            throw new IllegalStateException("Delta starts from " + delta.getSince()
+                    + " but the watermark of " + sourceName + " is " + current);
+        }
+
+        String urlPrefix = source == null ? delta.getUrlPrefix() : source.getUrlPrefix();
+        if (urlPrefix == null || urlPrefix.isBlank()) {
+            throw new IllegalArgumentException("Missing URL prefix for new source " + sourceName);
+        }
+        if (delta.getUrlPrefix() != null && !delta.getUrlPrefix().equals(urlPrefix)) {
+            throw new IllegalArgumentException("URL prefix of " + sourceName + " is " + urlPrefix);
+        }
+
+        /* A source may only change its own listings */
+        Set<String> upserted = new HashSet<>();
+        for (ExternalListingDTO dto : delta.getUpserts()) {
+            if (dto != null && dto.getSourceUrl() != null) {
+                String url = dto.getSourceUrl().trim();
+                requirePrefix(url, urlPrefix);
+                upserted.add(url);
+            }
+        }
+        for (String url : delta.getTombstones()) {
+            if (url == null || url.isBlank()) {
+                throw new IllegalArgumentException("Blank tombstone");
+            }
+            requirePrefix(url.trim(), urlPrefix);
+            if (upserted.contains(url.trim())) {
+                throw new IllegalArgumentException("Listed both as changed and removed: " + url.trim());
+            }
+        }
+        return urlPrefix;
+    }
+
+    private static void requirePrefix(String url, String urlPrefix) {
+        if (!url.startsWith(urlPrefix)) {
+            throw new IllegalArgumentException("Listing " + url + " is outside " + urlPrefix);
+        }
+    }
+
+    /**
+     * Moves the external listings named by the tombstones to the archive, a chunk per transaction,
+     * with the same set-based statements as the stale listing cleanup.
+     */
+    private void removeTombstoned(List<String> tombstones, ImportProgress progress) {
+        List<String> urls = new ArrayList<>(new LinkedHashSet<>(tombstones.stream().map(String::trim).toList()));
+        progress.recordSkipped(tombstones.size() - urls.size());
+
+        for (int from = 0; from < urls.size(); from += ExternalListingImportService.CHUNK_SIZE) {
+            List<String> chunk = urls.subList(from, Math.min(from + ExternalListingImportService.CHUNK_SIZE, urls.size()));
+
+            int removed = transactionTemplate.execute(status -> {
+                DeleteResult deleted = listingBulkRepository.archiveExternal(
+                        listingRepository.findExternalIdsBySourceUrlIn(chunk));
+                if (!deleted.getListingIds().isEmpty()) {
+                    eventPublisher.publishEvent(ListingsChangedEvent.removed(deleted.getListingIds()));
+                }
+                return deleted.getListingIds().size();
+            });
+            progress.recordRemoved(chunk.size(), removed);
+        }
+    }
+
+    /**
+     * Moves the watermark forward, unless another delta got there first.
+     */
+    private void advance(String sourceName, String urlPrefix, ExternalListingDeltaDTO delta) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                ImportSource source = importSourceRepository.findForUpdate(sourceName)
+                        .orElseGet(() -> new ImportSource(sourceName, urlPrefix));
+
+                if (!Objects.equals(source.getWatermark(), delta.getSince())) {
+                    throw new IllegalStateException("Watermark of " + sourceName
+                            + " was advanced concurrently to " + source.getWatermark());
+                }
+                source.advanceTo(delta.getWatermark());
+                importSourceRepository.saveAndFlush(source);
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("Source " + sourceName + " was created concurrently");
+        }
+    }
+}
@@ -13,6 +13,8 @@ import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 import org.thymeleaf.spring6.SpringTemplateEngine;
 import org.thymeleaf.context.Context;
+import java.util.List;
+import java.util.Map;
 
 @Service
 public class EmailService {
@@ -169,6 +171,40 @@ public class EmailService {
         }
     }
 
+    /**
+     * Sends one digest of the new listings matching a tenant's saved searches.
+     * Returns false if the email could not be sent, so the alerts stay queued.
+     */
+    public boolean sendSavedSearchAlertEmail(String to, String name, Map<String, List<Listing>> matches) {
+
+        try {
+            System.out.println("Sending saved search alert to: " + to);
+
+            MimeMessage mimeMessage = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
+
+            /* Content preparation */
+            Context context = new Context();
+            context.setVariable("name", name);
+            context.setVariable("matches", matches);
+
+            String htmlContent = templateEngine.process("email/saved-search-alert.html", context);
+
+            helper.setTo(to);
+            helper.setSubject("New listings match your saved searches");
+            helper.setText(htmlContent, true); //HTML content
+
+            mailSender.send(mimeMessage);
+
+            System.out.println("Email sent to: " + to);
+            return true;
+        } catch (MailException | MessagingException e) {
+            System.err.println("Failed to send saved search alert to: " + to);
+            e.printStackTrace();
+            return false;
+        }
+    }
+
     public void sendWelcomeEmail(String recipientEmail, User user) {
 
         try {
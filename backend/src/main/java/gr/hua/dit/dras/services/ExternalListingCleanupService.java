@@ -0,0 +1,179 @@
+package gr.hua.dit.dras.services;
+
+/* imports */
+import gr.hua.dit.dras.events.ListingsChangedEvent;
+import gr.hua.dit.dras.repositories.ListingBulkRepository;
+import gr.hua.dit.dras.repositories.ListingBulkRepository.DeleteResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Removes external listings that no scrape has seen for {@code dras.cleanup.external.grace-days}.
+ * Each chunk is copied into the monthly partitions of listing_archive, which keeps their price
+ * history for the rent models, and deleted with a handful of set-based statements in its own
+ * transaction. The job pauses between chunks, so row locks are held briefly and imports and
+ * applications keep going while a large backlog is worked off.
+ * Archive months older than {@code dras.archive.retention-months} are dropped whole;
+ * with the default of 0 the archive is kept forever.
+ */
+@Service
+public class ExternalListingCleanupService {
+
+    private final ListingBulkRepository listingBulkRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int graceDays;
+    private final int chunkSize;
+    private final long pauseMillis;
+    private final int archiveRetentionMonths;
+
+    public ExternalListingCleanupService(ListingBulkRepository listingBulkRepository,
+                                         ApplicationEventPublisher eventPublisher,
+                                         PlatformTransactionManager transactionManager,
+                                         @Value("${dras.cleanup.external.grace-days:30}") int graceDays,
+                                         @Value("${dras.cleanup.external.chunk-size:1000}") int chunkSize,
+                                         @Value("${dras.cleanup.external.pause-ms:200}") long pauseMillis,
+                                         @Value("${dras.archive.retention-months:0}") int archiveRetentionMonths) {
+        this.listingBulkRepository = listingBulkRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.graceDays = graceDays;
+        this.chunkSize = chunkSize;
+        this.pauseMillis = pauseMillis;
+        this.archiveRetentionMonths = archiveRetentionMonths;
+    }
+
+    @Scheduled(cron = "${dras.cleanup.external.cron:0 30 3 * * *}")
+    public void cleanup() {
+        CleanupReport report = cleanup(graceDays);
+        System.out.println("External listing cleanup finished: " + report + ".");
+
+        if (archiveRetentionMonths > 0) {
+            Instant archiveCutoff = ZonedDateTime.now(ZoneOffset.UTC).minusMonths(archiveRetentionMonths).toInstant();
+            List<String> dropped = transactionTemplate.execute(status ->
+                    listingBulkRepository.dropArchivePartitionsBefore(archiveCutoff));
+            if (dropped != null && !dropped.isEmpty()) {
+                System.out.println("Dropped listing archive partitions: " + dropped);
+            }
+        }
+    }
+
+    /**
+     * Archives and deletes the external listings last scraped more than graceDays ago, chunk by
+     * chunk, until none is left. A failing chunk stops the run; the chunks before it stay moved.
+     */
+    public CleanupReport cleanup(int graceDays) {
+        if (graceDays < 0) {
+            throw new IllegalArgumentException("Grace period must not be negative");
+        }
+        Instant cutoff = Instant.now().minus(graceDays, ChronoUnit.DAYS);
+        CleanupReport report = new CleanupReport(cutoff);
+
+        while (true) {
+            DeleteResult result = transactionTemplate.execute(status -> {
+                DeleteResult deleted = listingBulkRepository.archiveStaleExternal(cutoff, chunkSize);
+                if (!deleted.getListingIds().isEmpty()) {
+                    eventPublisher.publishEvent(ListingsChangedEvent.removed(deleted.getListingIds()));
+                }
+                return deleted;
+            });
+            report.add(result);
+
+            /* A short chunk means the rest is either gone or locked by someone else */
+            if (result.getListingIds().size() < chunkSize) {
+                break;
+            }
+            try {
+                Thread.sleep(pauseMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        report.finish();
+        return report;
+    }
+
+    /**
+     * Rows removed by a cleanup run and how long it took.
+     */
+    public static class CleanupReport {
+
+        private final Instant cutoff;
+        private final long startedAt = System.nanoTime();
+        private int chunks;
+        private int listings;
+        private int archived;
+        private int imageLinks;
+        private int applications;
+        private int images;
+        private Duration elapsed = Duration.ZERO;
+
+        private CleanupReport(Instant cutoff) {
+            this.cutoff = cutoff;
+        }
+
+        private void add(DeleteResult result) {
+            chunks++;
+            listings += result.getListingIds().size();
+            archived += result.getArchived();
+            imageLinks += result.getImageLinks();
+            applications += result.getApplications();
+            images += result.getImages();
+        }
+
+        private void finish() {
+            elapsed = Duration.ofNanos(System.nanoTime() - startedAt);
+        }
+
+        public Instant getCutoff() {
+            return cutoff;
+        }
+
+        public int getChunks() {
+            return chunks;
+        }
+
+        public int getListings() {
+            return listings;
+        }
+
+        public int getArchived() {
+            return archived;
+        }
+
+        public int getImageLinks() {
+            return imageLinks;
+        }
+
+        public int getApplications() {
+            return applications;
+        }
+
+        public int getImages() {
+            return images;
+        }
+
+        public Duration getElapsed() {
+            return elapsed;
+        }
+
+        @Override
+        public String toString() {
+            return listings + " listings scraped before " + cutoff + " removed in " + chunks + " chunks ("
+                    + archived + " archived), with " + imageLinks + " image links, " + images + " images and "
+                    + applications + " applications, in " + elapsed.toMillis() + " ms";
+        }
+    }
+}
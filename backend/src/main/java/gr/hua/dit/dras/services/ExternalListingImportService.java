@@ -1,126 +1,467 @@
 package gr.hua.dit.dras.services;
 
 /* imports */
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import gr.hua.dit.dras.dto.ExternalListingDTO;
+import gr.hua.dit.dras.entities.ImportDeadLetter;
 import gr.hua.dit.dras.entities.Listing;
 import gr.hua.dit.dras.entities.Owner;
+import gr.hua.dit.dras.events.ListingsChangedEvent;
+import gr.hua.dit.dras.imports.ExternalListingReader;
+import gr.hua.dit.dras.imports.ImportPipeline;
+import gr.hua.dit.dras.imports.ImportProgress;
+import gr.hua.dit.dras.imports.InvalidRecordException;
+import gr.hua.dit.dras.imports.ListingCsvReader;
+import gr.hua.dit.dras.imports.ListingFingerprint;
 import gr.hua.dit.dras.model.enums.ListingStatus;
-import gr.hua.dit.dras.model.enums.PropertyType;
 import gr.hua.dit.dras.model.enums.RentalDuration;
-import gr.hua.dit.dras.repositories.ListingRepository;
+import gr.hua.dit.dras.repositories.ImportDeadLetterRepository;
+import gr.hua.dit.dras.repositories.ListingBulkRepository;
 import gr.hua.dit.dras.repositories.OwnerRepository;
-import org.springframework.transaction.annotation.Transactional;
+import gr.hua.dit.dras.repositories.PriceObservationRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class ExternalListingImportService {
 
-    private final ListingRepository listingRepository;
+    /* Listings committed per transaction */
+    public static final int CHUNK_SIZE = ListingBulkRepository.CHUNK_SIZE;
+
+    private final ListingBulkRepository listingBulkRepository;
+    private final PriceObservationRepository priceObservationRepository;
+    private final SecondLevelCacheService secondLevelCache;
+    private final ImportDeadLetterRepository importDeadLetterRepository;
     private final OwnerRepository ownerRepository;
+    private final GazetteerService gazetteerService;
+    private final PropertyTypeClassifier propertyTypeClassifier;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate deadLetterTemplate;
+    private final ImportPipeline pipeline;
 
-    public ExternalListingImportService(ListingRepository listingRepository, OwnerRepository ownerRepository) {
-        this.listingRepository = listingRepository;
+    public ExternalListingImportService(ListingBulkRepository listingBulkRepository,
+                                        PriceObservationRepository priceObservationRepository,
+                                        SecondLevelCacheService secondLevelCache,
+                                        ImportDeadLetterRepository importDeadLetterRepository,
+                                        OwnerRepository ownerRepository,
+                                        GazetteerService gazetteerService,
+                                        PropertyTypeClassifier propertyTypeClassifier,
+                                        Validator validator,
+                                        ApplicationEventPublisher eventPublisher,
+                                        ObjectMapper objectMapper,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${dras.import.pipeline.mappers:2}") int mappers,
+                                        @Value("${dras.import.pipeline.writers:2}") int writers,
+                                        @Value("${dras.import.pipeline.queue-capacity:1000}") int queueCapacity) {
+        this.listingBulkRepository = listingBulkRepository;
+        this.priceObservationRepository = priceObservationRepository;
+        this.secondLevelCache = secondLevelCache;
+        this.importDeadLetterRepository = importDeadLetterRepository;
         this.ownerRepository = ownerRepository;
+        this.gazetteerService = gazetteerService;
+        this.propertyTypeClassifier = propertyTypeClassifier;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        /* Dead letters are stored in their own transaction, whatever the caller runs in */
+        this.deadLetterTemplate = new TransactionTemplate(transactionManager);
+        this.deadLetterTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.pipeline = new ImportPipeline(mappers, writers, queueCapacity, CHUNK_SIZE);
     }
 
     /**
      * Imports or updates external listings.
+     * Listings are matched by source URL and written with set-based upserts, committing
+     * every {@value #CHUNK_SIZE} listings in their own transaction. Listings whose content
+     * fingerprint is unchanged only get their scrape timestamp updated.
+     * Invalid records are moved to the dead-letter table instead of failing the import.
      */
-    @Transactional
-    public void importExternalListings(List<ExternalListingDTO> dtos) {
+    public ImportProgress importExternalListings(List<ExternalListingDTO> dtos) {
+        ImportProgress progress = new ImportProgress();
+        ChunkedImport chunkedImport = new ChunkedImport(findSystemOwner(), progress);
 
-        /* Retrieve the dedicated system owner for externally imported listings */
-        Owner systemOwner = ownerRepository.findBySystemOwnerTrue()
-                .orElseThrow(() -> new IllegalStateException("System owner not found!"));
+        dtos.forEach(chunkedImport::add);
+        chunkedImport.flush();
+
+        progress.finish();
+        return progress;
+    }
+
+    /**
+     * Imports listings while they are being read, as {@link #importExternalListings(List)} does,
+     * through a staged pipeline: records are mapped in parallel and written by several writers,
+     * each owning the listings whose source URL hashes to it.
+     * Memory use is bounded by the pipeline queues regardless of the input size, and
+     * the progress counters are updated after every commit.
+     * Only malformed input, which cannot be read past, stops the import.
+     */
+    public void importExternalListings(ExternalListingReader reader, ImportProgress progress) throws IOException {
+        Owner systemOwner = findSystemOwner();
+
+        pipeline.run(reader, new ImportPipeline.Stages() {
+
+            @Override
+            public Listing map(ExternalListingDTO dto) {
+                return prepare(dto);
+            }
+
+            @Override
+            public void rejected(ExternalListingDTO dto, String reason) {
+                deadLetter(dto, reason, progress);
+            }
+
+            @Override
+            public void unreadable(InvalidRecordException e) {
+                deadLetter(null, e.getMessage(), e.getPayload(), progress);
+            }
+
+            @Override
+            public void superseded(ExternalListingDTO dto) {
+                progress.recordSkipped(1);
+            }
 
-        for (ExternalListingDTO dto : dtos) {
-
-            /* Validates mandatory external data before processing */
-            validateDto(dto);
-
-            /* Reuses existing listing by source URL or creates a new one */
-            Listing listing = listingRepository
-                    .findBySourceUrl(dto.getSourceUrl())
-                    .orElseGet(Listing::new);
-
-            /* Maps basic listing fields from external DTO */
-            listing.setTitle(dto.getTitle());
-            listing.setSubtitle(dto.getSubtitle());
-            listing.setDescription(dto.getDescription());
-            listing.setPrice(dto.getPrice());
-            listing.setPricePerM2(dto.getPricePerM2());
-            listing.setAddress(dto.getAddress());
-            listing.setSizeM2(dto.getSizeM2());
-            listing.setRooms(dto.getRooms());
-            listing.setPropertyType(mapPropertyType(dto.getPropertyType()));
-            listing.setRentalDuration(mapRentalDuration(dto.getRentalDuration()));
-            listing.setSourceUrl(dto.getSourceUrl());
-
-            /* Marks as externally sourced and auto-approved */
-            listing.setExternal(true);
-            listing.setOwner(systemOwner);
-            listing.setStatus(ListingStatus.APPROVED);
-            listing.setDateScraped(dto.getDateScraped());
-
-            /* Replaces images if valid image URLs are provided */
-            if (dto.getImages() != null && !dto.getImages().isEmpty()) {
-                listing.setImages(
-                        dto.getImages().stream()
-                                .filter(img -> img != null && !img.isBlank())
-                                .toList()
-                );
+            @Override
+            public void write(List<ExternalListingDTO> dtos, List<Listing> listings) {
+                ChunkedImport chunkedImport = new ChunkedImport(systemOwner, progress);
+                for (int i = 0; i < dtos.size(); i++) {
+                    chunkedImport.add(dtos.get(i), listings.get(i));
+                }
+                chunkedImport.flush();
             }
+        });
+
+        System.out.println("Streamed import of external listings finished: " + progress + ".");
+    }
+
+    /**
+     * Loads a scraper CSV snapshot in a single transaction. Rows are mapped and validated as
+     * in the other imports, streamed into a staging table with COPY while the file is read,
+     * and merged into the listings with a few set-based statements, so the cost barely
+     * depends on the number of rows. Invalid rows are dead-lettered once the snapshot has
+     * committed; anything else, including malformed CSV, rolls the whole snapshot back and
+     * stores none of them, so loading the file again does not duplicate its dead letters.
+     */
+    public ImportProgress importCsvSnapshot(ListingCsvReader reader) throws IOException {
+        Owner systemOwner = findSystemOwner();
+        ImportProgress progress = new ImportProgress();
+        StagedRows rows = new StagedRows(reader, progress);
 
-            listingRepository.save(listing);
+        try {
+            ListingBulkRepository.UpsertResult result = transactionTemplate.execute(status -> {
+                ListingBulkRepository.UpsertResult upserted = listingBulkRepository.copyUpsert(rows, systemOwner.getId());
+                priceObservationRepository.appendCurrent(upserted.getAllIds());
+                secondLevelCache.evictListingsAfterCommit(upserted.getUnchangedIds());
+                List<Integer> changedIds = upserted.getChangedIds();
+                if (!changedIds.isEmpty()) {
+                    eventPublisher.publishEvent(ListingsChangedEvent.updated(changedIds));
+                }
+                return upserted;
+            });
+            progress.chunkCommitted(rows.staged, result);
+            storeDeadLetters(rows.deadLetters, progress);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
+
+        progress.finish();
+        System.out.println("CSV snapshot import of external listings finished: " + progress + ".");
+        return progress;
     }
 
     /**
-     * Maps raw external rental duration text to internal enum representation.
+     * The valid listings of a CSV snapshot, mapped as they are read; rows that cannot be
+     * read or mapped are collected as dead letters on the way.
      */
-    private RentalDuration mapRentalDuration(String raw) {
-        if (raw == null)
-            return RentalDuration.OTHER;
+    private final class StagedRows implements Iterator<Listing> {
 
-        return switch (raw.trim().toLowerCase()) {
-            case "απεριόριστη" -> RentalDuration.INDEFINITE;
-            default -> RentalDuration.OTHER;
-        };
+        private final ListingCsvReader reader;
+        private final ImportProgress progress;
+
+        private final List<ImportDeadLetter> deadLetters = new ArrayList<>();
+
+        private Listing next;
+        private int staged;
+
+        private StagedRows(ListingCsvReader reader, ImportProgress progress) {
+            this.reader = reader;
+            this.progress = progress;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                ExternalListingDTO dto;
+                try {
+                    dto = reader.next();
+                } catch (InvalidRecordException e) {
+                    deadLetters.add(new ImportDeadLetter(null, e.getMessage(), e.getPayload()));
+                    continue;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (dto == null) {
+                    return false;
+                }
+
+                try {
+                    next = prepare(dto);
+                } catch (IllegalArgumentException e) {
+                    deadLetters.add(toDeadLetter(dto, e.getMessage()));
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Listing next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Listing listing = next;
+            next = null;
+            staged++;
+            return listing;
+        }
     }
 
     /**
-     * Keyword mapping used to infer PropertyType from external text.
+     * Retrieves the dedicated system owner for externally imported listings.
      */
-    private static final Map<PropertyType, List<String>> PROPERTY_KEYWORDS = Map.of(
-            PropertyType.APARTMENT, List.of("διαμ"),
-            PropertyType.HOUSE, List.of("μονοκατοικ"),
-            PropertyType.STUDIO, List.of("στούντιο", "γκαρσονιέρα"),
-            PropertyType.MAISONETTE, List.of("μεζον"),
-            PropertyType.LOFT, List.of("λοφτ"),
-            PropertyType.VILLA, List.of("βίλα")
-    );
+    private Owner findSystemOwner() {
+        return ownerRepository.findBySystemOwnerTrue()
+                .orElseThrow(() -> new IllegalStateException("System owner not found!"));
+    }
 
     /**
-     * Maps raw external property type text to internal enum using keyword matching.
-     * Defaults to OTHER if no match is found.
+     * Validates a DTO and maps it to a listing ready to be written.
      */
-    private PropertyType mapPropertyType(String raw) {
-        if (raw == null || raw.isBlank()) {
-            return PropertyType.OTHER;
+    private Listing prepare(ExternalListingDTO dto) {
+        if (dto == null) {
+            throw new IllegalArgumentException("Missing listing");
         }
 
-        String normalized = raw.trim().toLowerCase();
+        /* Validates mandatory external data before processing */
+        validateDto(dto);
+
+        Listing listing = toListing(dto);
+        validateListing(listing);
+        return listing;
+    }
 
-        return PROPERTY_KEYWORDS.entrySet().stream()
-                .filter(entry ->
-                        entry.getValue().stream()
-                                .anyMatch(normalized::contains)
-                )
-                .map(Map.Entry::getKey)
-                .findFirst()
-                .orElse(PropertyType.OTHER);
+    /**
+     * Upserts the listings, records their prices and announces them; listeners run once the
+     * surrounding transaction commits.
+     */
+    private ListingBulkRepository.UpsertResult writeChunk(List<Listing> listings, Owner systemOwner) {
+        ListingBulkRepository.UpsertResult result = listingBulkRepository.upsertBySourceUrl(listings, systemOwner.getId());
+        /* Every scrape is an observation, unchanged prices included */
+        priceObservationRepository.appendCurrent(result.getAllIds());
+
+        /* Unchanged listings only had their scrape timestamp touched, which only cached entities hold */
+        secondLevelCache.evictListingsAfterCommit(result.getUnchangedIds());
+        List<Integer> changedIds = result.getChangedIds();
+        if (!changedIds.isEmpty()) {
+            eventPublisher.publishEvent(ListingsChangedEvent.updated(changedIds));
+        }
+        return result;
+    }
+
+    private void deadLetter(ExternalListingDTO dto, String reason, ImportProgress progress) {
+        storeDeadLetters(List.of(toDeadLetter(dto, reason)), progress);
+    }
+
+    private void deadLetter(String sourceUrl, String reason, String payload, ImportProgress progress) {
+        storeDeadLetters(List.of(new ImportDeadLetter(sourceUrl, reason, payload)), progress);
+    }
+
+    private ImportDeadLetter toDeadLetter(ExternalListingDTO dto, String reason) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(dto);
+        } catch (JsonProcessingException e) {
+            payload = null;
+        }
+        return new ImportDeadLetter(dto == null ? null : dto.getSourceUrl(), reason, payload);
+    }
+
+    /**
+     * Stores records that could not be imported, in their own transaction.
+     */
+    private void storeDeadLetters(List<ImportDeadLetter> deadLetters, ImportProgress progress) {
+        if (deadLetters.isEmpty()) {
+            return;
+        }
+        deadLetterTemplate.executeWithoutResult(status -> importDeadLetterRepository.saveAll(deadLetters));
+        progress.recordFailed(deadLetters.size());
+
+        for (ImportDeadLetter deadLetter : deadLetters) {
+            System.out.println("Dead-lettered external listing "
+                    + (deadLetter.getSourceUrl() == null ? "without source URL" : deadLetter.getSourceUrl())
+                    + ": " + deadLetter.getReason());
+        }
+    }
+
+    /**
+     * Accumulates prepared listings and commits them a chunk at a time. A chunk the
+     * database rejects is rolled back and retried listing by listing, so only the
+     * listings that fail on their own are dead-lettered.
+     */
+    private final class ChunkedImport {
+
+        private final Owner systemOwner;
+        private final ImportProgress progress;
+
+        private final List<ExternalListingDTO> dtos = new ArrayList<>(CHUNK_SIZE);
+        private final List<Listing> listings = new ArrayList<>(CHUNK_SIZE);
+
+        private ChunkedImport(Owner systemOwner, ImportProgress progress) {
+            this.systemOwner = systemOwner;
+            this.progress = progress;
+        }
+
+        void add(ExternalListingDTO dto) {
+            Listing listing;
+            try {
+                listing = prepare(dto);
+            } catch (IllegalArgumentException e) {
+                deadLetter(dto, e.getMessage(), progress);
+                return;
+            }
+            add(dto, listing);
+        }
+
+        void add(ExternalListingDTO dto, Listing listing) {
+            dtos.add(dto);
+            listings.add(listing);
+
+            if (listings.size() == CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (listings.isEmpty()) {
+                return;
+            }
+
+            try {
+                commit(listings);
+            } catch (DataAccessException | TransactionException e) {
+                System.out.println("Import chunk of " + listings.size() + " listings failed ("
+                        + rootMessage(e) + "), retrying them one by one.");
+
+                for (int i = 0; i < listings.size(); i++) {
+                    try {
+                        commit(List.of(listings.get(i)));
+                    } catch (DataAccessException | TransactionException single) {
+                        deadLetter(dtos.get(i), rootMessage(single), progress);
+                    }
+                }
+            }
+
+            listings.clear();
+            dtos.clear();
+        }
+
+        private void commit(List<Listing> chunk) {
+            ListingBulkRepository.UpsertResult result = transactionTemplate.execute(status -> writeChunk(chunk, systemOwner));
+            progress.chunkCommitted(chunk.size(), result);
+        }
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+
+    /**
+     * Maps an external DTO to a detached listing carrying the values to upsert.
+     */
+    private Listing toListing(ExternalListingDTO dto) {
+        Listing listing = new Listing();
+
+        /* Maps basic listing fields from external DTO */
+        listing.setTitle(dto.getTitle());
+        listing.setSubtitle(dto.getSubtitle());
+        listing.setDescription(dto.getDescription());
+        listing.setPrice(dto.getPrice());
+        listing.setPricePerM2(dto.getPricePerM2());
+        listing.setAddress(dto.getAddress());
+        gazetteerService.locate(listing);
+        listing.setSizeM2(dto.getSizeM2());
+        listing.setRooms(dto.getRooms());
+        listing.setPropertyType(propertyTypeClassifier.classify(dto.getPropertyType()));
+        listing.setRentalDuration(mapRentalDuration(dto.getRentalDuration()));
+        listing.setSourceUrl(dto.getSourceUrl());
+
+        /* Marks as externally sourced and auto-approved */
+        listing.setExternal(true);
+        listing.setStatus(ListingStatus.APPROVED);
+        listing.setDateScraped(dto.getDateScraped());
+
+        /* Replaces images if valid image URLs are provided */
+        if (dto.getImages() != null && !dto.getImages().isEmpty()) {
+            listing.setImages(
+                    dto.getImages().stream()
+                            .filter(img -> img != null && !img.isBlank())
+                            .toList()
+            );
+        }
+
+        listing.setContentHash(ListingFingerprint.of(listing));
+        return listing;
+    }
+
+    /**
+     * Applies the entity's bean validation constraints, which the bulk write does not trigger.
+     * Throws IllegalArgumentException listing the violated constraints.
+     */
+    private void validateListing(Listing listing) {
+        Set<ConstraintViolation<Listing>> violations = validator.validate(listing);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException("Invalid listing " + listing.getSourceUrl() + ": " +
+                    violations.stream()
+                            .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                            .sorted()
+                            .collect(Collectors.joining(", ")));
+        }
+    }
+
+    /**
+     * Maps raw external rental duration text to internal enum representation.
+     */
+    private RentalDuration mapRentalDuration(String raw) {
+        if (raw == null)
+            return RentalDuration.OTHER;
+
+        return switch (raw.trim().toLowerCase()) {
+            case "απεριόριστη" -> RentalDuration.INDEFINITE;
+            default -> RentalDuration.OTHER;
+        };
     }
 
     /**
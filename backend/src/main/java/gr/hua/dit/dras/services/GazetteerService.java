@@ -0,0 +1,137 @@
+package gr.hua.dit.dras.services;
+
+/* imports */
+import gr.hua.dit.dras.entities.Listing;
+import gr.hua.dit.dras.geo.GeoLocation;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Geocodes free-text addresses against the local gazetteer in {@value #PLACES}.
+ * Matching is accent- and case-insensitive and works on whole words,
+ * so both "Κουκάκι, Αθήνα" and "koukaki athens" resolve to Koukaki.
+ */
+@Service
+public class GazetteerService {
+
+    private static final String PLACES = "gazetteer/places.csv";
+    private static final Locale GREEK = Locale.forLanguageTag("el");
+
+    /* Most specific first, then longest name, so "Νέα Σμύρνη" wins over "Σμύρνη" */
+    private final List<Place> places;
+
+    public GazetteerService() {
+        this.places = load();
+        places.sort(Comparator.comparingInt((Place place) -> place.level)
+                .thenComparing(Comparator.comparingInt((Place place) -> place.name.length()).reversed()));
+    }
+
+    /**
+     * Returns the location of the most specific known place mentioned in the address.
+     */
+    public Optional<GeoLocation> geocode(String address) {
+        if (address == null || address.isBlank()) {
+            return Optional.empty();
+        }
+
+        String text = " " + normalize(address) + " ";
+        return places.stream()
+                .filter(place -> text.contains(" " + place.name + " "))
+                .findFirst()
+                .map(place -> place.location);
+    }
+
+    /**
+     * Returns the location of a place given by name or alias, e.g. "Syntagma".
+     */
+    public Optional<GeoLocation> resolve(String placeName) {
+        if (placeName == null || placeName.isBlank()) {
+            return Optional.empty();
+        }
+
+        String name = normalize(placeName);
+        return places.stream()
+                .filter(place -> place.name.equals(name))
+                .findFirst()
+                .map(place -> place.location);
+    }
+
+    /**
+     * Sets the coordinates, municipality and district of a listing from its address.
+     * An address that cannot be geocoded clears them, so they never describe an old address.
+     */
+    public void locate(Listing listing) {
+        GeoLocation location = geocode(listing.getAddress()).orElse(null);
+
+        listing.setLatitude(location == null ? null : location.getLatitude());
+        listing.setLongitude(location == null ? null : location.getLongitude());
+        listing.setMunicipality(location == null ? null : location.getMunicipality());
+        listing.setDistrict(location == null ? null : location.getDistrict());
+    }
+
+    /**
+     * Lower-cases, strips accents and final sigma, and reduces punctuation to single spaces.
+     */
+    static String normalize(String text) {
+        String lower = Normalizer.normalize(text.toLowerCase(GREEK), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .replace('ς', 'σ');
+        return lower.replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    private static List<Place> load() {
+        List<Place> places = new ArrayList<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ClassPathResource(PLACES).getInputStream(), StandardCharsets.UTF_8))) {
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+
+                String[] fields = line.split(";", -1);
+                GeoLocation location = new GeoLocation(
+                        Double.parseDouble(fields[5]),
+                        Double.parseDouble(fields[6]),
+                        fields[3],
+                        fields[4]);
+                int level = Integer.parseInt(fields[0]);
+
+                places.add(new Place(normalize(fields[1]), level, location));
+                for (String alias : fields[2].split("\\|")) {
+                    if (!alias.isBlank()) {
+                        places.add(new Place(normalize(alias), level, location));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not load gazetteer " + PLACES, e);
+        }
+        return places;
+    }
+
+    private static final class Place {
+
+        private final String name;
+        private final int level;
+        private final GeoLocation location;
+
+        private Place(String name, int level, GeoLocation location) {
+            this.name = name;
+            this.level = level;
+            this.location = location;
+        }
+    }
+}
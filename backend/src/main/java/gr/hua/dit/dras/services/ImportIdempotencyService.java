@@ -0,0 +1,100 @@
+package gr.hua.dit.dras.services;
+
+/* imports */
+import gr.hua.dit.dras.entities.ImportIdempotencyKey;
+import gr.hua.dit.dras.imports.ImportInProgressException;
+import gr.hua.dit.dras.repositories.ImportIdempotencyKeyRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Makes import requests idempotent. A request carrying a key runs once; a retry with the
+ * same key gets the stored response without reading its payload or touching any listing.
+ * Keys live in the database, so they survive restarts, and only the most recent
+ * {@code dras.import.idempotency.retained} completed keys are kept.
+ * Failed imports release their key, so a retry runs them again.
+ */
+@Service
+public class ImportIdempotencyService {
+
+    /**
+     * An import whose response can be stored.
+     */
+    @FunctionalInterface
+    public interface Import {
+        String run() throws IOException;
+    }
+
+    private final ImportIdempotencyKeyRepository keyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration abandonAfter;
+    private final int retained;
+
+    public ImportIdempotencyService(ImportIdempotencyKeyRepository keyRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${dras.import.idempotency.abandon-after-ms:3600000}") long abandonAfterMillis,
+                                    @Value("${dras.import.idempotency.retained:10000}") int retained) {
+        this.keyRepository = keyRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.abandonAfter = Duration.ofMillis(abandonAfterMillis);
+        this.retained = retained;
+    }
+
+    /**
+     * Runs the import unless the key was already used, and returns its response.
+     * Without a key the import simply runs. Throws ImportInProgressException if an
+     * import with the same key is still running.
+     */
+    public String execute(String key, Import importCall) throws IOException {
+        if (key == null || key.isBlank()) {
+            return importCall.run();
+        }
+        if (key.length() > ImportIdempotencyKey.MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency key longer than "
+                    + ImportIdempotencyKey.MAX_KEY_LENGTH + " characters");
+        }
+
+        Optional<String> stored = keyRepository.findCompletedResponse(key);
+        if (stored.isPresent()) {
+            System.out.println("Import with idempotency key " + key + " already completed, returning its result.");
+            return stored.get();
+        }
+
+        Instant now = Instant.now();
+        int claimed = transactionTemplate.execute(status -> keyRepository.claim(key, now, now.minus(abandonAfter)));
+        if (claimed == 0) {
+            /* Completed between the lookup and the claim, or still running */
+            stored = keyRepository.findCompletedResponse(key);
+            if (stored.isPresent()) {
+                return stored.get();
+            }
+            throw new ImportInProgressException("Import with idempotency key " + key + " is in progress");
+        }
+
+        String response;
+        try {
+            response = importCall.run();
+        } catch (IOException | RuntimeException | Error e) {
+            transactionTemplate.executeWithoutResult(status -> keyRepository.release(key));
+            throw e;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> keyRepository.complete(key, response, Instant.now()));
+        return response;
+    }
+
+    @Scheduled(fixedDelayString = "${dras.import.idempotency.prune-ms:3600000}")
+    public void prune() {
+        Integer deleted = transactionTemplate.execute(status -> keyRepository.deleteAllButRecent(retained));
+        if (deleted != null && deleted > 0) {
+            System.out.println("Pruned " + deleted + " import idempotency keys.");
+        }
+    }
+}
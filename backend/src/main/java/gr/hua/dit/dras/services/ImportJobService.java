@@ -0,0 +1,134 @@
+package gr.hua.dit.dras.services;
+
+/* imports */
+import gr.hua.dit.dras.imports.ExternalListingReader;
+import gr.hua.dit.dras.imports.ImportJob;
+import gr.hua.dit.dras.imports.LimitedInputStream;
+import gr.hua.dit.dras.imports.PayloadFormat;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs external listing imports in the background. Payloads are spooled to
+ * temporary files and processed on a bounded pool of virtual threads, chunk by chunk,
+ * so neither the HTTP request nor a database transaction stays open for the whole run.
+ */
+@Service
+public class ImportJobService {
+
+    private final ExternalListingImportService importService;
+    private final ImportPayloadReaders payloadReaders;
+    private final int retainedJobs;
+    private final long maxPayloadBytes;
+
+    private final ThreadPoolExecutor executor;
+
+    /* Recent jobs in submission order; the oldest finished ones are dropped first */
+    private final LinkedHashMap<String, ImportJob> jobs = new LinkedHashMap<>();
+
+    public ImportJobService(
+            ExternalListingImportService importService,
+            ImportPayloadReaders payloadReaders,
+            @Value("${dras.import.jobs.workers:2}") int workers,
+            @Value("${dras.import.jobs.queue-capacity:10}") int queueCapacity,
+            @Value("${dras.import.jobs.retained:100}") int retainedJobs,
+            @Value("${dras.import.max-decoded-bytes:268435456}") long maxPayloadBytes
+    ) {
+        this.importService = importService;
+        this.payloadReaders = payloadReaders;
+        this.retainedJobs = retainedJobs;
+        this.maxPayloadBytes = maxPayloadBytes;
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofVirtual().name("import-job-", 0).factory());
+    }
+
+    /**
+     * Spools the payload (an array or a sequence of listings in the given format) and queues it
+     * for import. Throws IllegalStateException if the queue is full, and a 413
+     * ResponseStatusException if the payload is larger than {@code dras.import.max-decoded-bytes}.
+     */
+    public ImportJob submit(InputStream payload, PayloadFormat format) throws IOException {
+        Path file = Files.createTempFile("dras-import-", "." + format.name().toLowerCase());
+        try {
+            Files.copy(new LimitedInputStream(payload, maxPayloadBytes), file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+
+        ImportJob job = new ImportJob(file, format);
+        synchronized (jobs) {
+            jobs.put(job.getId(), job);
+            evictFinished();
+        }
+
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            synchronized (jobs) {
+                jobs.remove(job.getId());
+            }
+            Files.deleteIfExists(file);
+            throw new IllegalStateException("Too many import jobs queued, try again later");
+        }
+        return job;
+    }
+
+    /**
+     * Returns the job with the given id, or null if unknown or no longer retained.
+     */
+    public ImportJob getJob(String id) {
+        synchronized (jobs) {
+            return jobs.get(id);
+        }
+    }
+
+    private void run(ImportJob job) {
+        job.start();
+        System.out.println("Import job " + job.getId() + " started.");
+
+        try (InputStream input = Files.newInputStream(job.getPayload());
+             ExternalListingReader reader = payloadReaders.open(job.getFormat(), input)) {
+            importService.importExternalListings(reader, job.getProgress());
+            job.complete();
+        } catch (Exception e) {
+            job.fail(e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(job.getPayload());
+            } catch (IOException e) {
+                System.out.println("Could not delete import payload " + job.getPayload() + ": " + e.getMessage());
+            }
+        }
+
+        System.out.println("Import job " + job.getId() + " " + job.getStatus() + ": " + job.getProgress() + ".");
+    }
+
+    private void evictFinished() {
+        Iterator<Map.Entry<String, ImportJob>> iterator = jobs.entrySet().iterator();
+        while (jobs.size() > retainedJobs && iterator.hasNext()) {
+            if (iterator.next().getValue().isFinished()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
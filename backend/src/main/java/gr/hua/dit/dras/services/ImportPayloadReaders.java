@@ -0,0 +1,43 @@
+package gr.hua.dit.dras.services;
+
+/* imports */
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import gr.hua.dit.dras.imports.ExternalListingReader;
+import gr.hua.dit.dras.imports.PayloadFormat;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Opens streaming readers over import payloads in any {@link PayloadFormat}.
+ * The binary formats use copies of the application's object mapper, so dates and
+ * unknown properties are handled exactly as in JSON; the mappers are built once,
+ * since each caches the deserializers it creates.
+ */
+@Service
+public class ImportPayloadReaders {
+
+    private final Map<PayloadFormat, ObjectMapper> mappers = new EnumMap<>(PayloadFormat.class);
+
+    public ImportPayloadReaders(ObjectMapper objectMapper) {
+        mappers.put(PayloadFormat.JSON, objectMapper);
+        mappers.put(PayloadFormat.CBOR, objectMapper.copyWith(new CBORFactory()));
+        mappers.put(PayloadFormat.SMILE, objectMapper.copyWith(new SmileFactory()));
+    }
+
+    /**
+     * Opens a reader for a payload of the given content type.
+     * Throws IllegalArgumentException if the type is not supported.
+     */
+    public ExternalListingReader open(String contentType, InputStream payload) throws IOException {
+        return open(PayloadFormat.forContentType(contentType), payload);
+    }
+
+    public ExternalListingReader open(PayloadFormat format, InputStream payload) throws IOException {
+        return new ExternalListingReader(mappers.get(format), payload);
+    }
+}
@@ -0,0 +1,167 @@
+package gr.hua.dit.dras.services;
+
+/* imports */
+import gr.hua.dit.dras.dto.CacheStatsDTO;
+import gr.hua.dit.dras.dto.ListingFilterDTO;
+import gr.hua.dit.dras.events.ListingsChangedEvent;
+import gr.hua.dit.dras.search.CachedFilterResult;
+import gr.hua.dit.dras.search.ListingBitmapIndex;
+import gr.hua.dit.dras.search.ListingIndexRow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of filter results, keyed by the canonical filter form.
+ * On listing changes only the entries that could be affected are dropped:
+ * those containing a changed listing, and those whose filter the changed
+ * listing now matches.
+ */
+@Service
+public class ListingFilterCacheService {
+
+    public static final String CACHE_NAME = "listingFilter";
+
+    private final ListingIndexService listingIndexService;
+    private final int maxEntries;
+
+    private final LinkedHashMap<String, Entry> entries;
+
+    /* Bumped on every invalidation, so results computed before it are not stored */
+    private long generation = 0;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private long invalidations = 0;
+
+    public ListingFilterCacheService(
+            ListingIndexService listingIndexService,
+            @Value("${dras.cache.listing-filter.max-entries:500}") int maxEntries
+    ) {
+        this.listingIndexService = listingIndexService;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > ListingFilterCacheService.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached result for the key, or null on a miss.
+     */
+    public synchronized CachedFilterResult get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.result;
+    }
+
+    /**
+     * Returns the current generation; read it before computing a result to {@link #put}.
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Stores a result computed when the cache was at the given generation.
+     * Results that may predate a concurrent invalidation are discarded.
+     */
+    public synchronized void put(String key, ListingFilterDTO filter, CachedFilterResult result, long computedAt) {
+        if (computedAt == generation) {
+            entries.put(key, new Entry(filter, result));
+        }
+    }
+
+    /**
+     * Drops the entries that the committed listing changes may have made stale.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(1)
+    public void onListingsChanged(ListingsChangedEvent event) {
+        List<ListingIndexRow> updatedRows = new ArrayList<>(event.getUpdatedIds().size());
+        for (Integer id : event.getUpdatedIds()) {
+            updatedRows.add(listingIndexService.getRow(id));
+        }
+
+        synchronized (this) {
+            generation++;
+
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (isAffected(iterator.next(), event, updatedRows)) {
+                    iterator.remove();
+                    invalidations++;
+                }
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        generation++;
+        invalidations += entries.size();
+        entries.clear();
+    }
+
+    public synchronized CacheStatsDTO getStats() {
+        return new CacheStatsDTO(CACHE_NAME, entries.size(), maxEntries,
+                hits, misses, evictions, invalidations);
+    }
+
+    private boolean isAffected(Entry entry, ListingsChangedEvent event, List<ListingIndexRow> updatedRows) {
+        for (Integer id : event.getRemovedIds()) {
+            if (entry.result.contains(id)) {
+                return true;
+            }
+        }
+        for (Integer id : event.getUpdatedIds()) {
+            if (entry.result.contains(id)) {
+                return true;
+            }
+        }
+        if (updatedRows.isEmpty()) {
+            return false;
+        }
+
+        /* Filters the index cannot evaluate are dropped on any update */
+        if (!entry.indexable) {
+            return true;
+        }
+        for (ListingIndexRow row : updatedRows) {
+            if (row == null || ListingBitmapIndex.matches(row, entry.filter)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Entry {
+
+        private final ListingFilterDTO filter;
+        private final CachedFilterResult result;
+        private final boolean indexable;
+
+        private Entry(ListingFilterDTO filter, CachedFilterResult result) {
+            this.filter = filter;
+            this.result = result;
+            this.indexable = ListingBitmapIndex.canAnswer(filter)
+                    && (filter.getQuery() == null || filter.getQuery().isBlank());
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package gr.hua.dit.dras.services;
+
+/* imports */
+import gr.hua.dit.dras.dto.ListingFilterDTO;
+import gr.hua.dit.dras.events.ListingsChangedEvent;
+import gr.hua.dit.dras.repositories.ListingRepository;
+import gr.hua.dit.dras.search.FacetCounter;
+import gr.hua.dit.dras.search.ListingBitmapIndex;
+import gr.hua.dit.dras.search.ListingCursor;
+import gr.hua.dit.dras.search.ListingIndexRow;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps the in-memory {@link ListingBitmapIndex} in sync with the listings table.
+ * The index is built once at startup and then patched from {@link ListingsChangedEvent}s.
+ * The rebuild and the reloads run one at a time, each reading the rows once the one before
+ * it has been applied, so a slower, older read can never replace a newer row. The lock is
+ * taken before the read transaction starts, so waiting listeners hold no connection.
+ */
+@Service
+public class ListingIndexService {
+
+    private static final int RELOAD_CHUNK_SIZE = 1000;
+
+    private final ListingRepository listingRepository;
+    private final TransactionTemplate readTemplate;
+    private final ListingBitmapIndex index = new ListingBitmapIndex();
+
+    /* Held from reading rows until they are applied */
+    private final Object reloadLock = new Object();
+
+    private volatile boolean ready = false;
+
+    public ListingIndexService(ListingRepository listingRepository, PlatformTransactionManager transactionManager) {
+        this.listingRepository = listingRepository;
+        /* Listeners run after the publishing transaction committed, so they read in a new one */
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTemplate.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+
+        synchronized (reloadLock) {
+            readTemplate.executeWithoutResult(status -> {
+                index.clear();
+                listingRepository.findIndexRows().forEach(index::put);
+            });
+            ready = true;
+        }
+
+        System.out.println("Listing index built with " + index.size() + " listings in "
+                + (System.currentTimeMillis() - start) + " ms.");
+    }
+
+    /**
+     * Applies committed listing changes to the index.
+     * Runs before the other listeners so they observe the updated rows.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(0)
+    public void onListingsChanged(ListingsChangedEvent event) {
+        synchronized (reloadLock) {
+            event.getRemovedIds().forEach(index::remove);
+
+            if (!event.getUpdatedIds().isEmpty()) {
+                readTemplate.executeWithoutResult(status -> reload(event.getUpdatedIds()));
+            }
+        }
+    }
+
+    /**
+     * Reads the rows of the updated listings and replaces them; a listing that is gone is removed.
+     */
+    private void reload(Set<Integer> updatedIds) {
+        Set<Integer> missing = new HashSet<>(updatedIds);
+        List<Integer> ids = new ArrayList<>(updatedIds);
+
+        /* Reloads changed rows in chunks to stay below the bind parameter limit */
+        for (int from = 0; from < ids.size(); from += RELOAD_CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + RELOAD_CHUNK_SIZE, ids.size()));
+            for (ListingIndexRow row : listingRepository.findIndexRowsByIdIn(chunk)) {
+                index.put(row);
+                missing.remove(row.getId());
+            }
+        }
+
+        /* Rows deleted in the meantime */
+        missing.forEach(index::remove);
+    }
+
+    /**
+     * Returns true if the filter can be answered from memory alone.
+     */
+    public boolean canAnswer(ListingFilterDTO filter) {
+        return ready && ListingBitmapIndex.canAnswer(filter);
+    }
+
+    public BitSet match(ListingFilterDTO filter) {
+        return index.match(filter);
+    }
+
+    /**
+     * Returns the positions of the next page among the candidates, in page order.
+     */
+    public List<ListingCursor> page(BitSet candidates, ListingCursor after, int limit) {
+        return index.page(candidates, after, limit);
+    }
+
+    public FacetCounter facets(BitSet ids) {
+        return index.facets(ids);
+    }
+
+    /**
+     * Returns the indexed values of a listing, or null if unknown.
+     */
+    public ListingIndexRow getRow(Integer id) {
+        return index.get(id);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+}
@@ -1,45 +1,118 @@
 package gr.hua.dit.dras.services;
 
 /* imports */
+import gr.hua.dit.dras.dto.CursorPage;
+import gr.hua.dit.dras.dto.ListingCardDTO;
+import gr.hua.dit.dras.dto.ListingFacetsDTO;
 import gr.hua.dit.dras.dto.ListingFilterDTO;
+import gr.hua.dit.dras.dto.PriceTrendDTO;
 import gr.hua.dit.dras.entities.*;
+import gr.hua.dit.dras.events.ListingsChangedEvent;
 import gr.hua.dit.dras.model.enums.ListingStatus;
 import gr.hua.dit.dras.repositories.*;
+import gr.hua.dit.dras.geo.GeoDistance;
+import gr.hua.dit.dras.geo.GeoLocation;
+import gr.hua.dit.dras.search.CachedFilterResult;
+import gr.hua.dit.dras.search.FacetCounter;
+import gr.hua.dit.dras.search.ListingField;
+import gr.hua.dit.dras.search.ListingCursor;
+import gr.hua.dit.dras.search.ListingFilterKey;
+import gr.hua.dit.dras.search.ListingIndexRow;
+import gr.hua.dit.dras.search.RankedCursor;
+import gr.hua.dit.dras.search.TextMatch;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
+import java.time.DayOfWeek;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.ListJoin;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.criteria.Subquery;
 import jakarta.servlet.http.HttpSession;
 
 @Service
 @Transactional
 public class ListingService {
 
+    /* Upper bound of ids per IN (...) lookup */
+    private static final int ID_CHUNK_SIZE = 1000;
+
+    /* Page sizes for keyset pagination */
+    public static final int DEFAULT_PAGE_SIZE = 24;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /* Largest accepted search radius */
+    private static final double MAX_RADIUS_KM = 100;
+
+    /* Default span of the price trend, in weeks; five times as much can be requested */
+    private static final int TREND_WEEKS = 52;
+
+    /* Full filter results larger than this are not cached */
+    private static final int MAX_CACHED_RESULT = 5000;
+
     private final RoleRepository roleRepository;
     private final UserService userService;
     private final ListingRepository listingRepository;
+    private final ImageRepository imageRepository;
+    private final PriceObservationRepository priceObservationRepository;
     private final OwnerService ownerService;
     private final TenantService tenantService;
+    private final ListingIndexService listingIndexService;
+    private final ListingFilterCacheService filterCache;
+    private final GazetteerService gazetteerService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
 
     public ListingService(
             RoleRepository roleRepository,
             UserService userService,
             ListingRepository listingRepository,
+            ImageRepository imageRepository,
+            PriceObservationRepository priceObservationRepository,
             OwnerService ownerService,
-            TenantService tenantService
+            TenantService tenantService,
+            ListingIndexService listingIndexService,
+            ListingFilterCacheService filterCache,
+            GazetteerService gazetteerService,
+            ApplicationEventPublisher eventPublisher,
+            EntityManager entityManager
     ) {
         this.roleRepository = roleRepository;
         this.userService = userService;
         this.listingRepository = listingRepository;
+        this.imageRepository = imageRepository;
+        this.priceObservationRepository = priceObservationRepository;
         this.ownerService = ownerService;
         this.tenantService = tenantService;
+        this.listingIndexService = listingIndexService;
+        this.filterCache = filterCache;
+        this.gazetteerService = gazetteerService;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
     }
 
     @Transactional(readOnly = true)
@@ -47,6 +120,20 @@ public class ListingService {
         return listingRepository.findAll();
     }
 
+    /**
+     * Returns one page of listing cards, newest first, starting after the given cursor.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ListingCardDTO> getListingPage(String cursor, Integer size) {
+        ListingCursor after = ListingCursor.decode(cursor);
+        int limit = pageSize(size);
+
+        /* Fetches one extra row to know whether another page follows */
+        List<ListingCardDTO> rows = findCards(after == null ? null : after(after), limit + 1);
+
+        return toPage(rows, limit);
+    }
+
     @Transactional(readOnly = true)
     public List<Listing> getLocalListings() {
         return listingRepository.findByExternalFalse();
@@ -81,8 +168,65 @@ public class ListingService {
         } else {
             listing.setDateScraped(null); //local listing
         }
+        /* Read before anything is flushed; edits that keep the price add no point to the series */
+        boolean priceChanged = priceObservationRepository.priceChanged(listing);
+
+        /* Geocodes the address for area filters and radius search */
+        gazetteerService.locate(listing);
+        attachImages(listing);
 
         listingRepository.save(listing);
+        /* Owner edits join the price series next to the imports */
+        if (priceChanged) {
+            priceObservationRepository.append(listing, Instant.now());
+        }
+        eventPublisher.publishEvent(ListingsChangedEvent.updated(listing.getId()));
+    }
+
+    /**
+     * Weekly median rent from the price observations of every import and owner edit,
+     * from the week of {@code from} up to {@code to}; by default the last 52 weeks.
+     */
+    @Transactional(readOnly = true)
+    public List<PriceTrendDTO> getWeeklyPriceTrend(LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now(ZoneOffset.UTC).plusDays(1);
+        LocalDate start = (from != null ? from : end.minusWeeks(TREND_WEEKS)).with(DayOfWeek.MONDAY);
+
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (start.plusWeeks(TREND_WEEKS * 5L).isBefore(end)) {
+            throw new IllegalArgumentException("Trend is limited to " + TREND_WEEKS * 5 + " weeks");
+        }
+        return priceObservationRepository.findWeeklyTrend(start, end);
+    }
+
+    /**
+     * Replaces images set by URL with the stored images of the same URL, storing missing ones.
+     * A URL listed twice is kept once, at its first position.
+     */
+    private void attachImages(Listing listing) {
+        List<Image> images = listing.getImageRefs();
+        if (images.stream().allMatch(image -> image.getId() != null)) {
+            return;
+        }
+
+        images.stream()
+                .filter(image -> image.getId() == null)
+                .forEach(image -> imageRepository.insertIfAbsent(image.getUrlHash(), image.getUrl()));
+
+        Map<String, Image> stored = imageRepository.findByUrlHashIn(
+                        images.stream().map(Image::getUrlHash).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Image::getUrlHash, Function.identity()));
+
+        List<Image> attached = new ArrayList<>(images.size());
+        for (Image image : images) {
+            Image storedImage = stored.get(image.getUrlHash());
+            if (!attached.contains(storedImage)) {
+                attached.add(storedImage);
+            }
+        }
+        listing.setImageRefs(attached);
     }
 
     @Transactional
@@ -112,6 +256,7 @@ public class ListingService {
         }
 
         listingRepository.delete(listing);
+        eventPublisher.publishEvent(ListingsChangedEvent.removed(listingId));
     }
 
     @Transactional(readOnly = true)
@@ -141,14 +286,275 @@ public class ListingService {
     }
 
     /**
-     * Builds a dynamic JPA Specification based on the provided filter
-     * and returns all matching listings.
+     * Returns all listings matching the provided filter.
+     * Filters covered by the in-memory index are answered from its bitmaps and
+     * only the matching rows are loaded; anything else falls back to a JPA Specification.
+     * A full-text query returns all of its hits, by relevance.
+     * Results are cached by canonical filter; a hit only reloads the listings by id.
      */
     @Transactional(readOnly = true)
     public List<Listing> filterListings(ListingFilterDTO filter) {
 
         /* Validates numeric and date ranges before building the query */
+        resolveLocation(filter);
+        validateRanges(filter);
+
+        String key = ListingFilterKey.of(filter) + "|all";
+        CachedFilterResult cached = filterCache.get(key);
+        if (cached != null) {
+            return loadInOrder(cached.getIds(), null);
+        }
+
+        long generation = filterCache.generation();
+        List<Listing> listings = findFiltered(filter);
+        if (listings.size() <= MAX_CACHED_RESULT) {
+            filterCache.put(key, filter, new CachedFilterResult(idsOf(listings), null), generation);
+        }
+        return listings;
+    }
+
+    /**
+     * Returns one page of the listings matching the filter, newest first,
+     * starting after the given cursor. Pages are cached like {@link #filterListings}.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ListingCardDTO> filterListingsPage(ListingFilterDTO filter, String cursor, Integer size) {
+
+        resolveLocation(filter);
         validateRanges(filter);
+        int limit = pageSize(size);
+
+        String key = ListingFilterKey.of(filter)
+                + "|cursor=" + (cursor == null ? "" : ListingFilterKey.escape(cursor.trim()))
+                + "|size=" + limit;
+        CachedFilterResult cached = filterCache.get(key);
+        if (cached != null) {
+            return new CursorPage<>(loadCardsInOrder(cached.getIds(), null), cached.getNextCursor());
+        }
+
+        long generation = filterCache.generation();
+        CursorPage<ListingCardDTO> page = findFilteredPage(filter, cursor, limit);
+        List<Integer> ids = page.getItems().stream().map(ListingCardDTO::getId).toList();
+        filterCache.put(key, filter, new CachedFilterResult(ids, page.getNextCursor()), generation);
+        return page;
+    }
+
+    /**
+     * API variant of {@link #filterListingsPage}: each listing is returned as a map
+     * holding only the requested fields. Card fields come from the page itself;
+     * any other field costs one projection query for the whole page.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Map<String, Object>> filterListingFields(ListingFilterDTO filter, String cursor,
+                                                               Integer size, Set<ListingField> fields) {
+
+        CursorPage<ListingCardDTO> page = filterListingsPage(filter, cursor, size);
+        List<Integer> ids = page.getItems().stream().map(ListingCardDTO::getId).toList();
+        Map<Integer, Map<ListingField, Object>> extra = findFields(ids, fields);
+
+        List<Map<String, Object>> items = new ArrayList<>(page.getItems().size());
+        for (ListingCardDTO card : page.getItems()) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            for (ListingField field : fields) {
+                item.put(field.getFieldName(), field.isOnCard()
+                        ? field.valueOf(card)
+                        : extra.getOrDefault(card.getId(), Map.of()).get(field));
+            }
+            items.add(item);
+        }
+        return new CursorPage<>(items, page.getNextCursor());
+    }
+
+    /**
+     * Returns the facet counts (property type, price band, rooms, rental duration,
+     * external/local) of the listings matching the filter.
+     * Counted in one pass over the index rows of the result; filters the index
+     * cannot answer are narrowed with the same Specification as {@link #filterListings}.
+     */
+    @Transactional(readOnly = true)
+    public ListingFacetsDTO getFacets(ListingFilterDTO filter) {
+
+        resolveLocation(filter);
+        validateRanges(filter);
+
+        BitSet candidates = listingIndexService.canAnswer(filter) ? listingIndexService.match(filter) : null;
+
+        if (hasText(filter.getQuery())) {
+            /* Counted over every hit; ranking is not needed for counts */
+            List<Integer> hitIds = textMatchIds(filter, candidates);
+
+            if (candidates == null) {
+                return countFacets(buildSpecification(filter), hitIds);
+            }
+
+            BitSet hits = new BitSet();
+            hitIds.forEach(hits::set);
+            return listingIndexService.facets(hits).toDTO();
+        }
+
+        if (candidates != null) {
+            return listingIndexService.facets(candidates).toDTO();
+        }
+
+        return countFacets(buildSpecification(filter), null);
+    }
+
+    /**
+     * Counts facets over the index columns of the rows matching the Specification,
+     * optionally restricted to the given ids. Only the indexed columns are selected.
+     */
+    private ListingFacetsDTO countFacets(Specification<Listing> spec, List<Integer> ids) {
+        FacetCounter counter = new FacetCounter();
+
+        if (ids == null) {
+            findIndexRows(spec).forEach(counter::add);
+            return counter.toDTO();
+        }
+
+        for (int from = 0; from < ids.size(); from += ID_CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + ID_CHUNK_SIZE, ids.size()));
+            findIndexRows(spec.and((root, query, cb) -> root.get("id").in(chunk))).forEach(counter::add);
+        }
+        return counter.toDTO();
+    }
+
+    private List<ListingIndexRow> findIndexRows(Specification<Listing> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ListingIndexRow> query = cb.createQuery(ListingIndexRow.class);
+        Root<Listing> root = query.from(Listing.class);
+
+        query.select(cb.construct(ListingIndexRow.class,
+                root.get("id"), root.get("propertyType"), root.get("status"), root.get("external"),
+                root.get("rentalDuration"), root.get("price"), root.get("pricePerM2"),
+                root.get("sizeM2"), root.get("rooms"), root.get("municipality"), root.get("district"),
+                root.get("latitude"), root.get("longitude"), root.get("updatedAt")));
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    private List<Listing> findFiltered(ListingFilterDTO filter) {
+        BitSet candidates = listingIndexService.canAnswer(filter) ? listingIndexService.match(filter) : null;
+
+        if (hasText(filter.getQuery())) {
+            /* Unpaged like the other filters: every hit is returned */
+            List<Integer> hitIds = textHits(filter, candidates, null, Integer.MAX_VALUE).stream()
+                    .map(TextMatch::getId)
+                    .toList();
+            return loadInOrder(hitIds, candidates == null ? buildSpecification(filter) : null);
+        }
+
+        if (candidates != null) {
+            return findAllById(candidates);
+        }
+
+        return listingRepository.findAll(buildSpecification(filter));
+    }
+
+    private CursorPage<ListingCardDTO> findFilteredPage(ListingFilterDTO filter, String cursor, int limit) {
+        if (hasText(filter.getQuery())) {
+            return searchListingsPage(filter, cursor, limit);
+        }
+
+        ListingCursor after = ListingCursor.decode(cursor);
+
+        if (listingIndexService.canAnswer(filter)) {
+            List<ListingCursor> positions = listingIndexService.page(
+                    listingIndexService.match(filter), after, limit + 1);
+            List<Integer> ids = positions.stream().map(ListingCursor::getId).toList();
+            return toPage(loadCardsInOrder(ids, null), limit);
+        }
+
+        Specification<Listing> spec = buildSpecification(filter);
+        if (after != null) {
+            spec = spec.and(after(after));
+        }
+
+        return toPage(findCards(spec, limit + 1), limit);
+    }
+
+    /**
+     * Full-text variant of {@link #filterListingsPage}: hits are served by relevance
+     * and narrowed by the remaining criteria of the filter.
+     */
+    private CursorPage<ListingCardDTO> searchListingsPage(ListingFilterDTO filter, String cursor, int limit) {
+
+        RankedCursor after = RankedCursor.decode(cursor);
+        BitSet candidates = listingIndexService.canAnswer(filter) ? listingIndexService.match(filter) : null;
+        Specification<Listing> residual = candidates == null ? buildSpecification(filter) : null;
+
+        Map<Integer, Float> ranks = new HashMap<>();
+
+        /*
+         * Fetches hits a batch at a time after the cursor until one row beyond the page is found;
+         * with index candidates every hit is a row, otherwise the residual criteria may drop some
+         */
+        List<ListingCardDTO> rows = new ArrayList<>(limit + 1);
+        while (rows.size() <= limit) {
+            List<TextMatch> hits = textHits(filter, candidates, after, limit + 1);
+            if (hits.isEmpty()) {
+                break;
+            }
+            hits.forEach(hit -> ranks.put(hit.getId(), hit.getRank()));
+            rows.addAll(loadCardsInOrder(hits.stream().map(TextMatch::getId).toList(), residual));
+
+            if (hits.size() <= limit) {
+                break;
+            }
+            TextMatch lastHit = hits.get(hits.size() - 1);
+            after = new RankedCursor(lastHit.getRank(), lastHit.getId());
+        }
+
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+
+        List<ListingCardDTO> items = new ArrayList<>(rows.subList(0, limit));
+        ListingCardDTO last = items.get(limit - 1);
+        return new CursorPage<>(items, new RankedCursor(ranks.get(last.getId()), last.getId()).encode());
+    }
+
+    /**
+     * Up to limit ranked full-text hits after the cursor, restricted to the index candidates
+     * if given; both the keyset position and the candidates are applied by the query.
+     */
+    private List<TextMatch> textHits(ListingFilterDTO filter, BitSet candidates, RankedCursor after, int limit) {
+        String query = filter.getQuery().trim();
+        float afterRank = after == null ? Float.POSITIVE_INFINITY : after.getRank();
+        int afterId = after == null ? Integer.MAX_VALUE : after.getId();
+
+        if (candidates == null) {
+            return listingRepository.findTextMatches(query, afterRank, afterId, limit);
+        }
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+        Integer[] ids = candidates.stream().boxed().toArray(Integer[]::new);
+        return listingRepository.findTextMatchesIn(query, ids, afterRank, afterId, limit);
+    }
+
+    /**
+     * Ids of all full-text hits, unranked, restricted to the index candidates if given.
+     */
+    private List<Integer> textMatchIds(ListingFilterDTO filter, BitSet candidates) {
+        String query = filter.getQuery().trim();
+
+        if (candidates == null) {
+            return listingRepository.findTextMatchIds(query);
+        }
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+        return listingRepository.findTextMatchIdsIn(query, candidates.stream().boxed().toArray(Integer[]::new));
+    }
+
+    /**
+     * Builds a dynamic JPA Specification based on the provided filter.
+     */
+    private Specification<Listing> buildSpecification(ListingFilterDTO filter) {
 
         Specification<Listing> spec = Specification.where(null); //start with an empty specification
 
@@ -172,12 +578,48 @@ public class ListingService {
                             filter.getMaxPrice()));
         }
 
+        /* Price per m2 range filters */
+        if (filter.getMinPricePerM2() != null) {
+            spec = spec.and((root, query, cb) ->
+                    cb.greaterThanOrEqualTo(root.get("pricePerM2"),
+                            filter.getMinPricePerM2()));
+        }
+
+        if (filter.getMaxPricePerM2() != null) {
+            spec = spec.and((root, query, cb) ->
+                    cb.lessThanOrEqualTo(root.get("pricePerM2"),
+                            filter.getMaxPricePerM2()));
+        }
+
+        /* Size range filters */
+        if (filter.getMinSize() != null) {
+            spec = spec.and((root, query, cb) ->
+                    cb.greaterThanOrEqualTo(root.get("sizeM2"),
+                            filter.getMinSize()));
+        }
+
+        if (filter.getMaxSize() != null) {
+            spec = spec.and((root, query, cb) ->
+                    cb.lessThanOrEqualTo(root.get("sizeM2"),
+                            filter.getMaxSize()));
+        }
+
         /* Exact match filters */
         if (filter.getType() != null) {
             spec = spec.and((root, query, cb) ->
                     cb.equal(root.get("propertyType"), filter.getType()));
         }
 
+        if (filter.getStatus() != null) {
+            spec = spec.and((root, query, cb) ->
+                    cb.equal(root.get("status"), filter.getStatus()));
+        }
+
+        if (filter.getRentalDuration() != null) {
+            spec = spec.and((root, query, cb) ->
+                    cb.equal(root.get("rentalDuration"), filter.getRentalDuration()));
+        }
+
         /* Case-insensitive exact match on municipality */
         if (hasText(filter.getMunicipality())) {
             spec = spec.and((root, query, cb) ->
@@ -185,16 +627,49 @@ public class ListingService {
                             filter.getMunicipality().trim().toLowerCase()));
         }
 
-        /* Bedroom range filters */
+        /* Case-insensitive exact match on district */
+        if (hasText(filter.getDistrict())) {
+            spec = spec.and((root, query, cb) ->
+                    cb.equal(cb.lower(root.get("district")),
+                            filter.getDistrict().trim().toLowerCase()));
+        }
+
+        /* Bounding-box filters */
+        if (filter.getMinLatitude() != null) {
+            spec = spec.and((root, query, cb) ->
+                    cb.greaterThanOrEqualTo(root.get("latitude"), filter.getMinLatitude()));
+        }
+
+        if (filter.getMaxLatitude() != null) {
+            spec = spec.and((root, query, cb) ->
+                    cb.lessThanOrEqualTo(root.get("latitude"), filter.getMaxLatitude()));
+        }
+
+        if (filter.getMinLongitude() != null) {
+            spec = spec.and((root, query, cb) ->
+                    cb.greaterThanOrEqualTo(root.get("longitude"), filter.getMinLongitude()));
+        }
+
+        if (filter.getMaxLongitude() != null) {
+            spec = spec.and((root, query, cb) ->
+                    cb.lessThanOrEqualTo(root.get("longitude"), filter.getMaxLongitude()));
+        }
+
+        /* Radius filter */
+        if (filter.getRadiusKm() != null) {
+            spec = spec.and(withinRadius(filter.getLatitude(), filter.getLongitude(), filter.getRadiusKm()));
+        }
+
+        /* Bedroom range filters (matched against the rooms column) */
         if (filter.getMinBedrooms() != null) {
             spec = spec.and((root, query, cb) ->
-                    cb.greaterThanOrEqualTo(root.get("bedrooms"),
+                    cb.greaterThanOrEqualTo(root.get("rooms"),
                             filter.getMinBedrooms()));
         }
 
         if (filter.getMaxBedrooms() != null) {
             spec = spec.and((root, query, cb) ->
-                    cb.lessThanOrEqualTo(root.get("bedrooms"),
+                    cb.lessThanOrEqualTo(root.get("rooms"),
                             filter.getMaxBedrooms()));
         }
 
@@ -217,7 +692,218 @@ public class ListingService {
                     cb.isTrue(root.get("external")));
         }
 
-        return listingRepository.findAll(spec);
+        return spec;
+    }
+
+    /**
+     * Radius predicate with the same distance formula as {@link GeoDistance}.
+     * The bounding box of the circle comes first, so the (latitude, longitude) index narrows the scan.
+     */
+    private Specification<Listing> withinRadius(double lat, double lon, double radiusKm) {
+        double latSpan = GeoDistance.latitudeSpan(radiusKm);
+        double lonSpan = GeoDistance.longitudeSpan(lat, radiusKm);
+        double lonScale = GeoDistance.KM_PER_DEGREE * Math.cos(Math.toRadians(lat));
+
+        return (root, query, cb) -> {
+            Expression<Double> latitude = root.get("latitude");
+            Expression<Double> longitude = root.get("longitude");
+            Expression<Double> dy = cb.prod(cb.diff(latitude, lat), GeoDistance.KM_PER_DEGREE);
+            Expression<Double> dx = cb.prod(cb.diff(longitude, lon), lonScale);
+
+            return cb.and(
+                    cb.between(latitude, lat - latSpan, lat + latSpan),
+                    cb.between(longitude, lon - lonSpan, lon + lonSpan),
+                    cb.le(cb.sum(cb.prod(dx, dx), cb.prod(dy, dy)), radiusKm * radiusKm));
+        };
+    }
+
+    /**
+     * Keyset predicate selecting the rows that come after the cursor in page order.
+     */
+    private Specification<Listing> after(ListingCursor cursor) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.<Instant>get("updatedAt"), cursor.getUpdatedAt()),
+                cb.and(
+                        cb.equal(root.get("updatedAt"), cursor.getUpdatedAt()),
+                        cb.lessThan(root.<Integer>get("id"), cursor.getId())
+                ));
+    }
+
+    /**
+     * Clamps the requested page size to [1, MAX_PAGE_SIZE].
+     */
+    private int pageSize(Integer size) {
+        if (size == null || size < 1) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Cuts the over-fetched rows down to one page and derives the next cursor.
+     */
+    private CursorPage<ListingCardDTO> toPage(List<ListingCardDTO> rows, int limit) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+
+        List<ListingCardDTO> items = new ArrayList<>(rows.subList(0, limit));
+        ListingCardDTO last = items.get(limit - 1);
+        return new CursorPage<>(items, new ListingCursor(last.getUpdatedAt(), last.getId()).encode());
+    }
+
+    /**
+     * Loads the cards of the listings matching the Specification (null for all),
+     * in page order, in one query. The cover image comes from a correlated subquery,
+     * so neither the image collection nor any association is loaded.
+     */
+    private List<ListingCardDTO> findCards(Specification<Listing> spec, Integer limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ListingCardDTO> query = cb.createQuery(ListingCardDTO.class);
+        Root<Listing> root = query.from(Listing.class);
+
+        Subquery<String> cover = query.subquery(String.class);
+        ListJoin<Listing, Image> image = cover.correlate(root).joinList("images");
+        cover.select(image.get("url")).where(cb.equal(image.index(), 0));
+
+        query.select(cb.construct(ListingCardDTO.class,
+                root.get("id"), root.get("title"), root.get("price"), root.get("pricePerM2"),
+                root.get("sizeM2"), root.get("rooms"), root.get("propertyType"), root.get("status"),
+                root.get("external"), cover, root.get("updatedAt")));
+
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        /* Keyset page order; must match ListingCursor */
+        query.orderBy(cb.desc(root.get("updatedAt")), cb.desc(root.get("id")));
+
+        TypedQuery<ListingCardDTO> typed = entityManager.createQuery(query);
+        if (limit != null) {
+            typed.setMaxResults(limit);
+        }
+        return typed.getResultList();
+    }
+
+    /**
+     * Selects the requested fields that are not on the card, keyed by listing id.
+     * Scalar fields share one tuple query; the image list, if requested, one more.
+     */
+    private Map<Integer, Map<ListingField, Object>> findFields(List<Integer> ids, Set<ListingField> fields) {
+        Map<Integer, Map<ListingField, Object>> values = new HashMap<>();
+        List<ListingField> columns = fields.stream()
+                .filter(field -> !field.isOnCard() && field.getAttribute() != null)
+                .toList();
+
+        if (ids.isEmpty()) {
+            return values;
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        if (!columns.isEmpty()) {
+            CriteriaQuery<Tuple> query = cb.createTupleQuery();
+            Root<Listing> root = query.from(Listing.class);
+
+            List<Selection<?>> selections = new ArrayList<>();
+            selections.add(root.get("id"));
+            columns.forEach(field -> selections.add(root.get(field.getAttribute())));
+            query.multiselect(selections).where(root.get("id").in(ids));
+
+            for (Tuple tuple : entityManager.createQuery(query).getResultList()) {
+                Map<ListingField, Object> row = values.computeIfAbsent(tuple.get(0, Integer.class), id -> new HashMap<>());
+                for (int i = 0; i < columns.size(); i++) {
+                    row.put(columns.get(i), tuple.get(i + 1));
+                }
+            }
+        }
+
+        if (fields.contains(ListingField.IMAGES)) {
+            CriteriaQuery<Tuple> query = cb.createTupleQuery();
+            Root<Listing> root = query.from(Listing.class);
+            ListJoin<Listing, Image> image = root.joinList("images");
+            query.multiselect(root.get("id"), image.get("url"))
+                    .where(root.get("id").in(ids))
+                    .orderBy(cb.asc(root.get("id")), cb.asc(image.index()));
+
+            for (Integer id : ids) {
+                values.computeIfAbsent(id, key -> new HashMap<>()).put(ListingField.IMAGES, new ArrayList<String>());
+            }
+            for (Tuple tuple : entityManager.createQuery(query).getResultList()) {
+                @SuppressWarnings("unchecked")
+                List<String> images = (List<String>) values.get(tuple.get(0, Integer.class)).get(ListingField.IMAGES);
+                images.add(tuple.get(1, String.class));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Loads the cards of the given ids in order; with a residual Specification, ids that fail it are dropped.
+     */
+    private List<ListingCardDTO> loadCardsInOrder(List<Integer> ids, Specification<Listing> residual) {
+        Map<Integer, ListingCardDTO> byId = new HashMap<>();
+
+        for (int from = 0; from < ids.size(); from += ID_CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + ID_CHUNK_SIZE, ids.size()));
+            Specification<Listing> spec = (root, query, cb) -> root.get("id").in(chunk);
+            findCards(residual == null ? spec : spec.and(residual), null)
+                    .forEach(card -> byId.put(card.getId(), card));
+        }
+
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Loads the given ids in order; with a residual Specification, ids that fail it are dropped.
+     */
+    private List<Listing> loadInOrder(List<Integer> ids, Specification<Listing> residual) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        List<Listing> listings = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += ID_CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + ID_CHUNK_SIZE, ids.size()));
+            listings.addAll(residual == null
+                    ? listingRepository.findAllById(chunk)
+                    : listingRepository.findAll(residual.and((root, query, cb) -> root.get("id").in(chunk))));
+        }
+
+        Map<Integer, Listing> byId = listings.stream()
+                .collect(Collectors.toMap(Listing::getId, Function.identity()));
+
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private static List<Integer> idsOf(List<Listing> listings) {
+        return listings.stream().map(Listing::getId).toList();
+    }
+
+    /**
+     * Loads the listings whose ids are set in the bitmap, in chunks of {@value #ID_CHUNK_SIZE}.
+     */
+    private List<Listing> findAllById(BitSet ids) {
+        List<Listing> listings = new ArrayList<>(ids.cardinality());
+        List<Integer> chunk = new ArrayList<>(ID_CHUNK_SIZE);
+
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            chunk.add(id);
+            if (chunk.size() == ID_CHUNK_SIZE) {
+                listings.addAll(listingRepository.findAllById(chunk));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            listings.addAll(listingRepository.findAllById(chunk));
+        }
+        return listings;
     }
 
     /**
@@ -227,6 +913,21 @@ public class ListingService {
         return value != null && !value.isBlank();
     }
 
+    /**
+     * Resolves a "near" place name into the radius search center.
+     * Throws IllegalArgumentException if the place is not in the gazetteer.
+     */
+    private void resolveLocation(ListingFilterDTO filter) {
+        if (!hasText(filter.getNear())) {
+            return;
+        }
+
+        GeoLocation center = gazetteerService.resolve(filter.getNear())
+                .orElseThrow(() -> new IllegalArgumentException("Unknown place: " + filter.getNear()));
+        filter.setLatitude(center.getLatitude());
+        filter.setLongitude(center.getLongitude());
+    }
+
     /**
      * Validates that provided numeric and date ranges are logically correct.
      * Throws IllegalArgumentException if a range is invalid.
@@ -238,11 +939,44 @@ public class ListingService {
             throw new IllegalArgumentException("Invalid price range.");
         }
 
+        if (filter.getMinPricePerM2() != null &&
+                filter.getMaxPricePerM2() != null &&
+                filter.getMinPricePerM2() > filter.getMaxPricePerM2()) {
+            throw new IllegalArgumentException("Invalid price per m2 range.");
+        }
+
+        if (filter.getMinSize() != null &&
+                filter.getMaxSize() != null &&
+                filter.getMinSize() > filter.getMaxSize()) {
+            throw new IllegalArgumentException("Invalid size range.");
+        }
+
         if (filter.getUpdatedAfter() != null &&
                 filter.getUpdatedBefore() != null &&
                 filter.getUpdatedAfter().isAfter(filter.getUpdatedBefore())) {
             throw new IllegalArgumentException("Invalid date range.");
         }
+
+        if (filter.getRadiusKm() != null) {
+            if (filter.getLatitude() == null || filter.getLongitude() == null) {
+                throw new IllegalArgumentException("A radius search needs a center.");
+            }
+            if (filter.getRadiusKm() <= 0 || filter.getRadiusKm() > MAX_RADIUS_KM) {
+                throw new IllegalArgumentException("Invalid search radius.");
+            }
+        }
+
+        if (filter.getMinLatitude() != null &&
+                filter.getMaxLatitude() != null &&
+                filter.getMinLatitude() > filter.getMaxLatitude()) {
+            throw new IllegalArgumentException("Invalid latitude range.");
+        }
+
+        if (filter.getMinLongitude() != null &&
+                filter.getMaxLongitude() != null &&
+                filter.getMinLongitude() > filter.getMaxLongitude()) {
+            throw new IllegalArgumentException("Invalid longitude range.");
+        }
     }
 
     @Transactional
@@ -252,6 +986,7 @@ public class ListingService {
         listing.approve();
 
         listingRepository.save(listing);
+        eventPublisher.publishEvent(ListingsChangedEvent.updated(listingId));
     }
 
     @Transactional
@@ -261,14 +996,7 @@ public class ListingService {
         listing.reject();
 
         listingRepository.save(listing);
-    }
-
-    @Transactional
-    public void cleanupExternalListings(int graceDays) {
-        /* Deletes if last scraped date is older than cutoff */
-        Instant cutoff = Instant.now().minus(graceDays, ChronoUnit.DAYS);
-        listingRepository.deleteByExternalTrueAndDateScrapedBefore(cutoff);
-
+        eventPublisher.publishEvent(ListingsChangedEvent.updated(listingId));
     }
 
     public void validateListingModificationRights(Listing listing, User currentUser) {
@@ -320,6 +1048,7 @@ public class ListingService {
         }
 
         listingRepository.save(listing);
+        eventPublisher.publishEvent(ListingsChangedEvent.updated(listing.getId()));
     }
 
 }
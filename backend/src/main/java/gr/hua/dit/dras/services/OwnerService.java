@@ -5,11 +5,13 @@ import gr.hua.dit.dras.entities.Listing;
 import gr.hua.dit.dras.entities.Owner;
 import gr.hua.dit.dras.entities.Role;
 import gr.hua.dit.dras.entities.User;
+import gr.hua.dit.dras.events.ListingsChangedEvent;
 import gr.hua.dit.dras.model.enums.ListingStatus;
 import gr.hua.dit.dras.repositories.ListingRepository;
 import gr.hua.dit.dras.repositories.OwnerRepository;
 import gr.hua.dit.dras.repositories.RoleRepository;
 import gr.hua.dit.dras.repositories.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -25,19 +27,22 @@ public class OwnerService {
     private final UserService userService;
     private final ListingRepository listingRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public OwnerService(
             OwnerRepository ownerRepository,
             RoleRepository roleRepository,
             UserService userService,
             ListingRepository listingRepository,
-            UserRepository userRepository
+            UserRepository userRepository,
+            ApplicationEventPublisher eventPublisher
     ) {
         this.ownerRepository = ownerRepository;
         this.roleRepository = roleRepository;
         this.userService = userService;
         this.listingRepository = listingRepository;
         this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional(readOnly = true)
@@ -162,6 +167,7 @@ public class OwnerService {
             userService.updateUser(currentUser); //saves the user
         }
         listingRepository.save(listing);
+        eventPublisher.publishEvent(ListingsChangedEvent.updated(listingId));
     }
 
     @Transactional
@@ -191,6 +197,8 @@ public class OwnerService {
         }
 
         owner.deactivate();
+        eventPublisher.publishEvent(ListingsChangedEvent.updated(
+                listings.stream().map(Listing::getId).toList()));
     }
 
     @Transactional
@@ -203,6 +211,7 @@ public class OwnerService {
         listing.setOwner(null);
         listing.disable();
         listingRepository.save(listing);
+        eventPublisher.publishEvent(ListingsChangedEvent.updated(listingId));
     }
 
 }
@@ -0,0 +1,84 @@
+package gr.hua.dit.dras.services;
+
+/* imports */
+import gr.hua.dit.dras.imports.PropertyTypeMatcher;
+import gr.hua.dit.dras.model.enums.PropertyType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+/**
+ * Infers the property type of external listings from their raw type text.
+ * The keyword dictionary is the bundled {@value #DEFAULT_DICTIONARY}, or the file set in
+ * {@code dras.import.property-types.file}, which is checked for changes and recompiled
+ * without a restart. A dictionary that fails to compile leaves the current one in place.
+ */
+@Service
+public class PropertyTypeClassifier {
+
+    private static final String DEFAULT_DICTIONARY = "classifier/property-types.txt";
+
+    private final Path dictionaryFile;
+
+    private volatile PropertyTypeMatcher matcher;
+    private volatile FileTime loadedVersion;
+
+    public PropertyTypeClassifier(@Value("${dras.import.property-types.file:}") String dictionaryFile) throws IOException {
+        this.dictionaryFile = dictionaryFile.isBlank() ? null : Path.of(dictionaryFile);
+
+        if (this.dictionaryFile == null) {
+            try (Reader reader = new InputStreamReader(
+                    new ClassPathResource(DEFAULT_DICTIONARY).getInputStream(), StandardCharsets.UTF_8)) {
+                matcher = PropertyTypeMatcher.compile(reader);
+            }
+        } else {
+            reload();
+        }
+    }
+
+    /**
+     * Maps raw external property type text to internal enum using keyword matching.
+     * Defaults to OTHER if no match is found.
+     */
+    public PropertyType classify(String raw) {
+        return matcher.classify(raw);
+    }
+
+    /**
+     * Recompiles the dictionary file if it changed since it was last loaded.
+     */
+    @Scheduled(fixedDelayString = "${dras.import.property-types.reload-ms:30000}")
+    public void reloadIfChanged() {
+        if (dictionaryFile == null) {
+            return;
+        }
+
+        try {
+            if (!Files.getLastModifiedTime(dictionaryFile).equals(loadedVersion)) {
+                reload();
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Property type dictionary " + dictionaryFile + " not reloaded: " + e.getMessage());
+        }
+    }
+
+    private synchronized void reload() throws IOException {
+        FileTime version = Files.getLastModifiedTime(dictionaryFile);
+        try (Reader reader = Files.newBufferedReader(dictionaryFile, StandardCharsets.UTF_8)) {
+            PropertyTypeMatcher compiled = PropertyTypeMatcher.compile(reader);
+            matcher = compiled;
+            loadedVersion = version;
+
+            System.out.println("Property type dictionary loaded from " + dictionaryFile + ": "
+                    + compiled.getStateCount() + " states.");
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package gr.hua.dit.dras.services;
+
+/* imports */
+import gr.hua.dit.dras.dto.ListingFilterDTO;
+import gr.hua.dit.dras.entities.Listing;
+import gr.hua.dit.dras.entities.SavedSearch;
+import gr.hua.dit.dras.entities.SavedSearchAlert;
+import gr.hua.dit.dras.entities.Tenant;
+import gr.hua.dit.dras.events.ListingsChangedEvent;
+import gr.hua.dit.dras.geo.GeoLocation;
+import gr.hua.dit.dras.model.enums.ListingStatus;
+import gr.hua.dit.dras.repositories.ListingRepository;
+import gr.hua.dit.dras.repositories.SavedSearchAlertRepository;
+import gr.hua.dit.dras.repositories.SavedSearchRepository;
+import gr.hua.dit.dras.search.ListingBitmapIndex;
+import gr.hua.dit.dras.search.ListingIndexRow;
+import gr.hua.dit.dras.search.SavedSearchIndex;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Saved searches and their alerts.
+ * Saved searches are kept in a {@link SavedSearchIndex}; every committed listing
+ * change is matched against it, so the cost of alerting grows with the number
+ * of changed listings, not with the number of saved searches. Matches are queued
+ * in saved_search_alerts and mailed in per-tenant digests.
+ */
+@Service
+public class SavedSearchService {
+
+    private static final int MAX_SAVED_SEARCHES_PER_TENANT = 20;
+
+    /* Pending alerts handled per dispatch run */
+    private static final int DISPATCH_BATCH_SIZE = 500;
+
+    private final SavedSearchRepository savedSearchRepository;
+    private final SavedSearchAlertRepository alertRepository;
+    private final ListingRepository listingRepository;
+    private final TenantService tenantService;
+    private final ListingIndexService listingIndexService;
+    private final GazetteerService gazetteerService;
+    private final EmailService emailService;
+    private final SavedSearchIndex index = new SavedSearchIndex();
+
+    public SavedSearchService(SavedSearchRepository savedSearchRepository,
+                              SavedSearchAlertRepository alertRepository,
+                              ListingRepository listingRepository,
+                              TenantService tenantService,
+                              ListingIndexService listingIndexService,
+                              GazetteerService gazetteerService,
+                              EmailService emailService) {
+        this.savedSearchRepository = savedSearchRepository;
+        this.alertRepository = alertRepository;
+        this.listingRepository = listingRepository;
+        this.tenantService = tenantService;
+        this.listingIndexService = listingIndexService;
+        this.gazetteerService = gazetteerService;
+        this.emailService = emailService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        index.clear();
+        savedSearchRepository.findAll().forEach(search -> index.put(search.getId(), search.toFilter()));
+
+        System.out.println("Saved search index built with " + index.size() + " searches.");
+    }
+
+    @Transactional(readOnly = true)
+    public List<SavedSearch> getSavedSearchesForCurrentTenant() {
+        return savedSearchRepository.findByTenantIdOrderByCreatedAtDesc(tenantService.getTenantIdForCurrentUser());
+    }
+
+    /**
+     * Saves the filter for the current tenant.
+     * Only criteria the index can evaluate are accepted; a text query or title is rejected.
+     */
+    @Transactional
+    public SavedSearch saveSearchForCurrentTenant(String name, ListingFilterDTO filter) {
+
+        Tenant tenant = tenantService.getTenant(tenantService.getTenantIdForCurrentUser());
+
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("A saved search needs a name.");
+        }
+        if (hasText(filter.getQuery()) || !ListingBitmapIndex.canAnswer(filter)) {
+            throw new IllegalArgumentException("Saved searches cannot include a text query, title or update dates.");
+        }
+        if (savedSearchRepository.countByTenantId(tenant.getId()) >= MAX_SAVED_SEARCHES_PER_TENANT) {
+            throw new IllegalArgumentException("You can keep at most " + MAX_SAVED_SEARCHES_PER_TENANT + " saved searches.");
+        }
+
+        if (hasText(filter.getNear())) {
+            GeoLocation center = gazetteerService.resolve(filter.getNear())
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown place: " + filter.getNear()));
+            filter.setLatitude(center.getLatitude());
+            filter.setLongitude(center.getLongitude());
+        }
+        if (filter.getRadiusKm() != null && (filter.getLatitude() == null || filter.getLongitude() == null)) {
+            throw new IllegalArgumentException("A radius search needs a center.");
+        }
+
+        SavedSearch search = savedSearchRepository.save(new SavedSearch(tenant, name.trim(), filter));
+
+        ListingFilterDTO criteria = search.toFilter();
+        afterCommit(() -> index.put(search.getId(), criteria));
+        return search;
+    }
+
+    @Transactional
+    public void deleteSearchForCurrentTenant(Integer savedSearchId) {
+        SavedSearch search = savedSearchRepository.findById(savedSearchId)
+                .filter(s -> s.getTenant().getId().equals(tenantService.getTenantIdForCurrentUser()))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Saved search not found"));
+
+        savedSearchRepository.delete(search);
+        afterCommit(() -> index.remove(savedSearchId));
+    }
+
+    /**
+     * Queues an alert for every saved search that a committed, approved listing matches.
+     * Runs after the listing index is updated, so it reads the current listing values.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(2)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onListingsChanged(ListingsChangedEvent event) {
+        Instant now = Instant.now();
+        int queued = 0;
+
+        for (Integer listingId : event.getUpdatedIds()) {
+            ListingIndexRow row = listingIndexService.getRow(listingId);
+            if (row == null || row.getStatus() != ListingStatus.APPROVED) {
+                continue;
+            }
+            for (Integer savedSearchId : index.match(row)) {
+                queued += alertRepository.enqueue(savedSearchId, listingId, now);
+            }
+        }
+
+        if (queued > 0) {
+            System.out.println("Queued " + queued + " saved search alerts.");
+        }
+    }
+
+    /**
+     * Mails the pending alerts, one digest per tenant.
+     * Alerts whose email fails stay pending and are retried on the next run.
+     */
+    @Scheduled(fixedDelayString = "${dras.saved-searches.alert-delay-ms:60000}")
+    @Transactional
+    public void dispatchAlerts() {
+        List<SavedSearchAlert> pending = alertRepository.findPending(Limit.of(DISPATCH_BATCH_SIZE));
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, Listing> listings = listingRepository
+                .findAllById(pending.stream().map(SavedSearchAlert::getListingId).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(Listing::getId, Function.identity()));
+
+        Map<Tenant, List<SavedSearchAlert>> byTenant = pending.stream()
+                .collect(Collectors.groupingBy(alert -> alert.getSavedSearch().getTenant(),
+                        LinkedHashMap::new, Collectors.toList()));
+
+        List<Long> sent = new ArrayList<>();
+        byTenant.forEach((tenant, alerts) -> {
+
+            /* Listings deleted since the match are dropped from the digest */
+            Map<String, List<Listing>> matches = new LinkedHashMap<>();
+            for (SavedSearchAlert alert : alerts) {
+                Listing listing = listings.get(alert.getListingId());
+                if (listing != null) {
+                    matches.computeIfAbsent(alert.getSavedSearch().getName(), k -> new ArrayList<>()).add(listing);
+                }
+            }
+
+            if (matches.isEmpty() || emailService.sendSavedSearchAlertEmail(
+                    tenant.getUser().getEmail(), tenant.getFirstName(), matches)) {
+                alerts.forEach(alert -> sent.add(alert.getId()));
+            }
+        });
+
+        if (!sent.isEmpty()) {
+            alertRepository.markSent(sent, Instant.now());
+        }
+    }
+
+    /* Applies an index change only once the saved search change is committed */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
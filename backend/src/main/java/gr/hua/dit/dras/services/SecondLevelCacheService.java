@@ -0,0 +1,117 @@
+package gr.hua.dit.dras.services;
+
+/* imports */
+import gr.hua.dit.dras.dto.CacheStatsDTO;
+import gr.hua.dit.dras.entities.Listing;
+import gr.hua.dit.dras.events.ListingsChangedEvent;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps Hibernate's second-level cache consistent with the writes Hibernate does not see, and
+ * reports its regions. Writes through the entity manager update the cache by themselves, but the
+ * bulk imports and the stale listing cleanup write listings with plain JDBC, so the listings they
+ * touch are evicted once their transaction commits. Query caching is limited to the role and
+ * owner finders, whose tables are only written through Hibernate.
+ */
+@Service
+public class SecondLevelCacheService {
+
+    /* Regions of the @Cache entities, as configured in application.conf */
+    private static final List<String> ENTITY_REGIONS = List.of("roles", "owners", "listings");
+
+    private final SessionFactory sessionFactory;
+
+    private final AtomicLong listingEvictions = new AtomicLong();
+
+    public SecondLevelCacheService(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(0)
+    public void onListingsChanged(ListingsChangedEvent event) {
+        evictListings(event.getUpdatedIds());
+        evictListings(event.getRemovedIds());
+    }
+
+    /**
+     * Evicts the listings once the current transaction commits, or right away outside one.
+     * For JDBC writes that publish no change event, such as scrape timestamp touches.
+     */
+    public void evictListingsAfterCommit(Collection<Integer> listingIds) {
+        if (listingIds.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictListings(listingIds);
+            return;
+        }
+        List<Integer> ids = List.copyOf(listingIds);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictListings(ids);
+            }
+        });
+    }
+
+    private void evictListings(Collection<Integer> listingIds) {
+        for (Integer id : listingIds) {
+            sessionFactory.getCache().evictEntityData(Listing.class, id);
+        }
+        listingEvictions.addAndGet(listingIds.size());
+    }
+
+    /**
+     * Counters of every entity region and of the query results region. The maximum sizes live
+     * in application.conf and are reported as 0; invalidations are the listings evicted for JDBC
+     * writes, and evictions by the cache itself are not counted by Hibernate.
+     */
+    public List<CacheStatsDTO> getStats() {
+        Statistics statistics = sessionFactory.getStatistics();
+        List<CacheStatsDTO> stats = new ArrayList<>();
+        if (!statistics.isStatisticsEnabled()) {
+            return stats;
+        }
+
+        for (String region : ENTITY_REGIONS) {
+            CacheRegionStatistics regionStats = statistics.getDomainDataRegionStatistics(region);
+            if (regionStats != null) {
+                stats.add(toDto(regionStats, region.equals("listings") ? listingEvictions.get() : 0));
+            }
+        }
+        CacheRegionStatistics queryStats =
+                statistics.getQueryRegionStatistics(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+        if (queryStats != null) {
+            stats.add(toDto(queryStats, 0));
+        }
+        return stats;
+    }
+
+    /**
+     * Empties every region, cached queries included.
+     */
+    public void clear() {
+        sessionFactory.getCache().evictAllRegions();
+    }
+
+    private static CacheStatsDTO toDto(CacheRegionStatistics regionStats, long invalidations) {
+        long size = regionStats.getElementCountInMemory();
+        return new CacheStatsDTO("hibernate:" + regionStats.getRegionName(),
+                size == CacheRegionStatistics.NO_EXTENDED_STAT_SUPPORT_RETURN ? 0 : size, 0,
+                regionStats.getHitCount(), regionStats.getMissCount(), 0, invalidations);
+    }
+}
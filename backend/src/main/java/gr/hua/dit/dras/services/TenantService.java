@@ -2,12 +2,14 @@ package gr.hua.dit.dras.services;
 
 /* imports */
 import gr.hua.dit.dras.entities.*;
+import gr.hua.dit.dras.events.ListingsChangedEvent;
 import gr.hua.dit.dras.model.enums.ListingStatus;
 import gr.hua.dit.dras.model.enums.RentalStatus;
 import gr.hua.dit.dras.repositories.TenantRepository;
 import gr.hua.dit.dras.repositories.ListingRepository;
 import gr.hua.dit.dras.repositories.RoleRepository;
 import gr.hua.dit.dras.repositories.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -24,19 +26,22 @@ public class TenantService {
     private final UserService userService;
     private final RoleRepository roleRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public TenantService(
             TenantRepository tenantRepository,
             ListingRepository listingRepository,
             UserService userService,
             RoleRepository roleRepository,
-            UserRepository userRepository
+            UserRepository userRepository,
+            ApplicationEventPublisher eventPublisher
     ) {
         this.tenantRepository = tenantRepository;
         this.listingRepository = listingRepository;
         this.userService = userService;
         this.roleRepository = roleRepository;
         this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional(readOnly = true)
@@ -223,6 +228,7 @@ public class TenantService {
         tenant.setRentalStatus(RentalStatus.RENTING);
         listing.setTenant(tenant);
         listing.setStatus(ListingStatus.RENTED);
+        eventPublisher.publishEvent(ListingsChangedEvent.updated(listingId));
     }
 
     /* Assigns role 'TENANT' if renting for the first time */
@@ -265,6 +271,7 @@ public class TenantService {
             userService.updateUser(currentUser); //saves user
         }
         listingRepository.save(listing);
+        eventPublisher.publishEvent(ListingsChangedEvent.updated(listingId));
     }
 
     @Transactional
@@ -292,6 +299,7 @@ public class TenantService {
 
         tenantRepository.save(tenant);
         listingRepository.save(listing);
+        eventPublisher.publishEvent(ListingsChangedEvent.updated(listingId));
     }
 
 }
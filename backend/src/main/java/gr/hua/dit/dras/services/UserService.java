@@ -2,7 +2,9 @@ package gr.hua.dit.dras.services;
 
 /* imports */
 import gr.hua.dit.dras.entities.*;
+import gr.hua.dit.dras.events.ListingsChangedEvent;
 import gr.hua.dit.dras.repositories.*;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AnonymousAuthenticationToken;
@@ -28,6 +30,7 @@ public class UserService implements UserDetailsService {
     private final ListingRepository listingRepository;
     private final TenantRepository tenantRepository;
     private final OwnerRepository  ownerRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public UserService(
             UserRepository userRepository,
@@ -35,7 +38,8 @@ public class UserService implements UserDetailsService {
             BCryptPasswordEncoder passwordEncoder,
             ListingRepository listingRepository,
             TenantRepository tenantRepository,
-            OwnerRepository  ownerRepository
+            OwnerRepository  ownerRepository,
+            ApplicationEventPublisher eventPublisher
     ) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
@@ -43,6 +47,7 @@ public class UserService implements UserDetailsService {
         this.listingRepository = listingRepository;
         this.tenantRepository = tenantRepository;
         this.ownerRepository = ownerRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -133,6 +138,7 @@ public class UserService implements UserDetailsService {
                         tenantRepository.deleteApplicationsByListingId(listing.getId());
                         listingRepository.save(listing);
                         listingRepository.delete(listing);
+                        eventPublisher.publishEvent(ListingsChangedEvent.removed(listing.getId()));
                     }
                 }
                 ownerRepository.delete(user.getOwner());
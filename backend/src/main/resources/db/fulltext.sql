@@ -0,0 +1,22 @@
+-- Full-text search over listing title, subtitle and description.
+-- Hibernate does not manage these objects; DatabaseSchemaInitializer runs this script at startup.
+
+-- Folds Greek accents and final sigma (ά -> α, ς -> σ) after lower-casing.
+-- Declared IMMUTABLE so it can be used inside the generated column below.
+CREATE OR REPLACE FUNCTION dras_greek_normalize(input text) RETURNS text
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE
+AS $$
+    SELECT translate(lower(coalesce(input, '')), 'άέήίόύώϊϋΐΰς', 'αεηιουωιυιυσ')
+$$;
+
+-- Weighted document: title (A) ranks above subtitle (B) and description (C).
+-- The 'greek' configuration applies the Snowball Greek stemmer, so inflected
+-- forms such as "διαμερίσματα" and "διαμέρισμα" share a lexeme.
+ALTER TABLE listings ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('greek', dras_greek_normalize(title)), 'A') ||
+        setweight(to_tsvector('greek', dras_greek_normalize(subtitle)), 'B') ||
+        setweight(to_tsvector('greek', dras_greek_normalize(description)), 'C')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_listings_search_vector ON listings USING gin (search_vector);
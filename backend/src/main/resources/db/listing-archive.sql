@@ -0,0 +1,28 @@
+-- Append-only history of expired external listings, for the rent models in analytics/models.
+-- The cleanup job moves listings here before deleting them (ListingBulkRepository.archiveStaleExternal).
+-- Rows are partitioned by the month of their last scrape; the job creates monthly partitions
+-- (listing_archive_pYYYYMM) as it needs them, so an old month is dropped or detached as a whole.
+-- Hibernate does not manage this table; DatabaseSchemaInitializer runs this script at startup.
+
+CREATE TABLE IF NOT EXISTS listing_archive (
+    listing_id integer NOT NULL,
+    source_url varchar(500),
+    date_scraped timestamptz NOT NULL,
+    created_at timestamptz,
+    archived_at timestamptz NOT NULL DEFAULT now(),
+    title varchar(150),
+    price integer,
+    price_per_m2 integer,
+    size_m2 integer,
+    rooms integer,
+    property_type varchar(30),
+    rental_duration varchar(20),
+    address varchar(255),
+    municipality varchar(100),
+    district varchar(100),
+    latitude double precision,
+    longitude double precision
+) PARTITION BY RANGE (date_scraped);
+
+-- Created on the parent, so every partition gets its own copy
+CREATE INDEX IF NOT EXISTS idx_listing_archive_municipality_date ON listing_archive (municipality, date_scraped);
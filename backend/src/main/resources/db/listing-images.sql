@@ -0,0 +1,44 @@
+-- Images are stored once per URL in "images" and linked to listings in display order
+-- through "listing_image_links" (both created by Hibernate). This migrates the former
+-- per-listing layout, listing_images(listing_id, image_url, image_order), into them.
+-- Everything is skipped once the legacy table is gone, so a migrated database sees no DDL.
+-- DatabaseSchemaInitializer runs it at startup, before the application serves requests.
+
+DO $$
+BEGIN
+    IF to_regclass('listing_images') IS NULL THEN
+        RETURN;
+    END IF;
+
+    ALTER TABLE listing_images ADD COLUMN IF NOT EXISTS image_order integer;
+
+    -- Tables from before the order column: number images in their physical order
+    UPDATE listing_images li
+    SET image_order = numbered.position
+    FROM (
+        SELECT ctid, row_number() OVER (PARTITION BY listing_id ORDER BY ctid) - 1 AS position
+        FROM listing_images
+        WHERE image_order IS NULL
+    ) numbered
+    WHERE li.ctid = numbered.ctid;
+
+    INSERT INTO images (url_hash, url)
+    SELECT DISTINCT encode(sha256(convert_to(image_url, 'UTF8')), 'hex'), image_url
+    FROM listing_images
+    WHERE image_url IS NOT NULL
+    ON CONFLICT (url_hash) DO NOTHING;
+
+    -- A URL repeated within a listing keeps its first position; positions are renumbered without gaps
+    INSERT INTO listing_image_links (listing_id, image_order, image_id)
+    SELECT listing_id, row_number() OVER (PARTITION BY listing_id ORDER BY image_order) - 1, image_id
+    FROM (
+        SELECT DISTINCT ON (li.listing_id, i.id) li.listing_id, li.image_order, i.id AS image_id
+        FROM listing_images li
+        JOIN images i ON i.url_hash = encode(sha256(convert_to(li.image_url, 'UTF8')), 'hex')
+        ORDER BY li.listing_id, i.id, li.image_order
+    ) distinct_images
+    ON CONFLICT DO NOTHING;
+
+    DROP TABLE listing_images;
+END
+$$;
@@ -0,0 +1,17 @@
+-- Append-only series of listing prices: a row per import of a listing and per owner edit,
+-- written by PriceObservationRepository. Rows are never updated or deleted, not even with
+-- their listing, so the trend survives the cleanup of expired listings.
+-- Rows arrive roughly in time order, so a BRIN index on the observation time stays a few
+-- pages large and still lets range scans skip everything outside the requested weeks.
+-- Hibernate does not manage this table; DatabaseSchemaInitializer runs this script at startup.
+
+CREATE TABLE IF NOT EXISTS listing_price_observations (
+    listing_id integer NOT NULL,
+    observed_at timestamptz NOT NULL,
+    price integer,
+    price_per_m2 integer,
+    size_m2 integer
+);
+
+CREATE INDEX IF NOT EXISTS idx_listing_price_observations_observed_at
+    ON listing_price_observations USING brin (observed_at);
@@ -0,0 +1,196 @@
+package gr.hua.dit.dras.benchmark;
+
+/* imports */
+import gr.hua.dit.dras.entities.Image;
+import gr.hua.dit.dras.entities.Listing;
+import gr.hua.dit.dras.imports.ListingFingerprint;
+import gr.hua.dit.dras.model.enums.ListingStatus;
+import gr.hua.dit.dras.model.enums.PropertyType;
+import gr.hua.dit.dras.model.enums.RentalDuration;
+import gr.hua.dit.dras.repositories.ListingBulkRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Import throughput of the bulk upsert and the COPY-staged snapshot load against the former
+ * per-listing path (lookup by source URL, insert or update, rewrite of every image), each in one transaction.
+ * Throughput is listings / reported time. "insert" imports a fresh scrape, "update" re-imports
+ * one that is already stored with a new price and one changed image per listing, "unchanged"
+ * re-imports identical content, which the bulk path reduces to a scrape timestamp touch.
+ * Needs a PostgreSQL database with the application schema and its system owner:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=gr.hua.dit.dras.benchmark.ExternalImportBenchmark
+ * -Ddras.bench.url=jdbc:postgresql://localhost:5432/dras -Ddras.bench.user=... -Ddras.bench.password=...
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class ExternalImportBenchmark {
+
+    private static final String URL_PREFIX = "https://bench.invalid/listing/";
+
+    @Param({"1000", "10000", "100000"})
+    public int listings;
+
+    @Param({"insert", "update", "unchanged"})
+    public String scenario;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private ListingBulkRepository bulkRepository;
+    private Integer ownerId;
+    private List<Listing> batch;
+
+    @Setup(Level.Trial)
+    public void connect() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                System.getProperty("dras.bench.url", "jdbc:postgresql://localhost:5432/dras"),
+                System.getProperty("dras.bench.user", "postgres"),
+                System.getProperty("dras.bench.password", "postgres"));
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        bulkRepository = new ListingBulkRepository(jdbcTemplate);
+        ownerId = jdbcTemplate.queryForObject("SELECT id FROM owner WHERE system_owner = true", Integer.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void prepare() {
+        deleteBenchmarkListings();
+        batch = generate(listings, 0);
+
+        if (!"insert".equals(scenario)) {
+            transactionTemplate.executeWithoutResult(status -> bulkRepository.upsertBySourceUrl(batch, ownerId));
+            batch = generate(listings, "update".equals(scenario) ? 1 : 0);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanUp() {
+        deleteBenchmarkListings();
+    }
+
+    @Benchmark
+    public ListingBulkRepository.UpsertResult bulkUpsert() {
+        return transactionTemplate.execute(status -> bulkRepository.upsertBySourceUrl(batch, ownerId));
+    }
+
+    @Benchmark
+    public ListingBulkRepository.UpsertResult copyUpsert() {
+        return transactionTemplate.execute(status -> bulkRepository.copyUpsert(batch.iterator(), ownerId));
+    }
+
+    @Benchmark
+    public List<Integer> perListingSave() {
+        return transactionTemplate.execute(status -> {
+            List<Integer> ids = new ArrayList<>(batch.size());
+            OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+
+            for (Listing listing : batch) {
+                List<Integer> existing = jdbcTemplate.queryForList(
+                        "SELECT id FROM listings WHERE source_url = ?", Integer.class, listing.getSourceUrl());
+
+                Integer id;
+                if (existing.isEmpty()) {
+                    id = jdbcTemplate.queryForObject(
+                            "INSERT INTO listings (title, description, price, price_perm2, address, sizem2, rooms, " +
+                                    "property_type, rental_duration, source_url, status, external, owner_id, " +
+                                    "date_scraped, created_at, updated_at) " +
+                                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, true, ?, ?, ?, ?) RETURNING id",
+                            Integer.class,
+                            listing.getTitle(), listing.getDescription(), listing.getPrice(),
+                            listing.getPricePerM2(), listing.getAddress(), listing.getSizeM2(), listing.getRooms(),
+                            listing.getPropertyType().name(), listing.getRentalDuration().name(),
+                            listing.getSourceUrl(), listing.getStatus().name(), ownerId, now, now, now);
+                } else {
+                    id = existing.get(0);
+                    jdbcTemplate.update(
+                            "UPDATE listings SET title = ?, description = ?, price = ?, price_perm2 = ?, " +
+                                    "updated_at = ? WHERE id = ?",
+                            listing.getTitle(), listing.getDescription(), listing.getPrice(),
+                            listing.getPricePerM2(), now, id);
+                }
+
+                /* Hibernate rewrites the whole image list on every change */
+                jdbcTemplate.update("DELETE FROM listing_image_links WHERE listing_id = ?", id);
+                for (int i = 0; i < listing.getImages().size(); i++) {
+                    String url = listing.getImages().get(i);
+                    jdbcTemplate.update("INSERT INTO images (url_hash, url) VALUES (?, ?) ON CONFLICT (url_hash) DO NOTHING",
+                            Image.hash(url), url);
+                    Long imageId = jdbcTemplate.queryForObject(
+                            "SELECT id FROM images WHERE url_hash = ?", Long.class, Image.hash(url));
+                    jdbcTemplate.update(
+                            "INSERT INTO listing_image_links (listing_id, image_order, image_id) VALUES (?, ?, ?)",
+                            id, i, imageId);
+                }
+                ids.add(id);
+            }
+            return ids;
+        });
+    }
+
+    private void deleteBenchmarkListings() {
+        jdbcTemplate.update("DELETE FROM listing_image_links WHERE listing_id IN " +
+                "(SELECT id FROM listings WHERE source_url LIKE ?)", URL_PREFIX + "%");
+        jdbcTemplate.update("DELETE FROM images WHERE url LIKE ?", URL_PREFIX + "%");
+        jdbcTemplate.update("DELETE FROM listings WHERE source_url LIKE ?", URL_PREFIX + "%");
+    }
+
+    /**
+     * Scrape-like listings with three images each; revision 1 changes the price and the last image.
+     */
+    private static List<Listing> generate(int count, int revision) {
+        Random random = new Random(42);
+        PropertyType[] types = PropertyType.values();
+        List<Listing> result = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            int size = 20 + random.nextInt(180);
+            int pricePerM2 = 5 + random.nextInt(30);
+
+            Listing listing = new Listing();
+            listing.setTitle("Διαμέρισμα " + size + " τ.μ.");
+            listing.setDescription("Benchmark listing " + i);
+            listing.setPrice(size * pricePerM2 + revision * 10);
+            listing.setPricePerM2(pricePerM2);
+            listing.setAddress("Κουκάκι, Αθήνα");
+            listing.setSizeM2(size);
+            listing.setRooms(1 + random.nextInt(6));
+            listing.setPropertyType(types[random.nextInt(types.length)]);
+            listing.setRentalDuration(RentalDuration.INDEFINITE);
+            listing.setSourceUrl(URL_PREFIX + i);
+            listing.setExternal(true);
+            listing.setStatus(ListingStatus.APPROVED);
+            listing.setDateScraped(Instant.now());
+            listing.setImages(List.of(
+                    URL_PREFIX + i + "/1.jpg",
+                    URL_PREFIX + i + "/2.jpg",
+                    URL_PREFIX + i + "/3" + (revision == 0 ? "" : "-v" + revision) + ".jpg"));
+            listing.setContentHash(ListingFingerprint.of(listing));
+            result.add(listing);
+        }
+        return result;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ExternalImportBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,180 @@
+package gr.hua.dit.dras.benchmark;
+
+/* imports */
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gr.hua.dit.dras.dto.ExternalListingDTO;
+import gr.hua.dit.dras.entities.Listing;
+import gr.hua.dit.dras.imports.ExternalListingReader;
+import gr.hua.dit.dras.imports.ImportPipeline;
+import gr.hua.dit.dras.imports.InvalidRecordException;
+import gr.hua.dit.dras.imports.ListingFingerprint;
+import gr.hua.dit.dras.model.enums.ListingStatus;
+import gr.hua.dit.dras.model.enums.PropertyType;
+import gr.hua.dit.dras.model.enums.RentalDuration;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Throughput of the staged import pipeline by number of mapping threads and writers.
+ * Parsing and mapping (bean validation and fingerprinting included) are the real code;
+ * the database write is replaced by a fixed pause per chunk, so the results show how the
+ * pipeline scales with cores without depending on a database. Scores are listings per second.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=gr.hua.dit.dras.benchmark.ImportPipelineBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImportPipelineBenchmark {
+
+    private static final int LISTINGS = 20_000;
+    private static final int CHUNK_SIZE = 500;
+
+    @Param({"1", "2", "4", "8"})
+    public int mappers;
+
+    @Param({"1", "2", "4"})
+    public int writers;
+
+    /* Simulated round trip of one chunk upsert */
+    @Param({"0", "20"})
+    public int writeMillis;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+
+        Random random = new Random(42);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        for (int i = 0; i < LISTINGS; i++) {
+            int size = 20 + random.nextInt(180);
+            int pricePerM2 = 5 + random.nextInt(30);
+
+            ExternalListingDTO dto = new ExternalListingDTO();
+            dto.setTitle("Διαμέρισμα " + size + " τ.μ. προς ενοικίαση");
+            dto.setSubtitle("Κουκάκι, Αθήνα");
+            dto.setDescription(("Φωτεινό διαμέρισμα κοντά στο μετρό, πλήρως ανακαινισμένο, με θέα. ").repeat(8));
+            dto.setPrice(size * pricePerM2);
+            dto.setPricePerM2(pricePerM2);
+            dto.setAddress("Κουκάκι, Αθήνα");
+            dto.setSizeM2(size);
+            dto.setRooms(1 + random.nextInt(6));
+            dto.setPropertyType("Διαμέρισμα");
+            dto.setRentalDuration("Απεριόριστη");
+            dto.setSourceUrl("https://rentola.gr/listings/" + i);
+            dto.setDateScraped(Instant.now());
+            dto.setImages(List.of(
+                    "https://rentola.gr/images/" + i + "/1.jpg",
+                    "https://rentola.gr/images/" + i + "/2.jpg"));
+
+            out.write(objectMapper.writeValueAsBytes(dto));
+            out.write('\n');
+        }
+        payload = out.toByteArray();
+        System.out.println("Payload of " + LISTINGS + " listings, " + payload.length / 1024 + " KiB.");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LISTINGS)
+    public long pipeline() throws IOException {
+        ImportPipeline pipeline = new ImportPipeline(mappers, writers, 1000, CHUNK_SIZE);
+        AtomicLong written = new AtomicLong();
+
+        try (ExternalListingReader reader = new ExternalListingReader(objectMapper, new ByteArrayInputStream(payload))) {
+            pipeline.run(reader, new ImportPipeline.Stages() {
+
+                @Override
+                public Listing map(ExternalListingDTO dto) {
+                    return toListing(dto);
+                }
+
+                @Override
+                public void rejected(ExternalListingDTO dto, String reason) {
+                    throw new IllegalStateException(reason);
+                }
+
+                @Override
+                public void unreadable(InvalidRecordException e) {
+                    throw e;
+                }
+
+                @Override
+                public void superseded(ExternalListingDTO dto) {
+                }
+
+                @Override
+                public void write(List<ExternalListingDTO> dtos, List<Listing> listings) {
+                    if (writeMillis > 0) {
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(writeMillis));
+                    }
+                    written.addAndGet(listings.size());
+                }
+            });
+        }
+        return written.get();
+    }
+
+    /**
+     * The mapping done by ExternalListingImportService, minus geocoding.
+     */
+    private Listing toListing(ExternalListingDTO dto) {
+        Listing listing = new Listing();
+        listing.setTitle(dto.getTitle());
+        listing.setSubtitle(dto.getSubtitle());
+        listing.setDescription(dto.getDescription());
+        listing.setPrice(dto.getPrice());
+        listing.setPricePerM2(dto.getPricePerM2());
+        listing.setAddress(dto.getAddress());
+        listing.setSizeM2(dto.getSizeM2());
+        listing.setRooms(dto.getRooms());
+        listing.setPropertyType(dto.getPropertyType().toLowerCase().contains("διαμ")
+                ? PropertyType.APARTMENT : PropertyType.OTHER);
+        listing.setRentalDuration(RentalDuration.INDEFINITE);
+        listing.setSourceUrl(dto.getSourceUrl());
+        listing.setExternal(true);
+        listing.setStatus(ListingStatus.APPROVED);
+        listing.setDateScraped(dto.getDateScraped());
+        listing.setImages(dto.getImages().stream().filter(img -> img != null && !img.isBlank()).toList());
+
+        if (!validator.validate(listing).isEmpty()) {
+            throw new IllegalArgumentException("Invalid listing " + dto.getSourceUrl());
+        }
+        listing.setContentHash(ListingFingerprint.of(listing));
+        return listing;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ImportPipelineBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
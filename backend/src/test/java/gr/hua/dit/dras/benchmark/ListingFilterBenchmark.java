@@ -0,0 +1,103 @@
+package gr.hua.dit.dras.benchmark;
+
+/* imports */
+import gr.hua.dit.dras.dto.ListingFilterDTO;
+import gr.hua.dit.dras.model.enums.ListingStatus;
+import gr.hua.dit.dras.model.enums.PropertyType;
+import gr.hua.dit.dras.model.enums.RentalDuration;
+import gr.hua.dit.dras.search.ListingBitmapIndex;
+import gr.hua.dit.dras.search.ListingIndexRow;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the bitmap index with a row-by-row evaluation of the same predicates.
+ * The row scan is a lower bound for the Specification path, which on top of it
+ * pays a database round trip and entity hydration for every request.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=gr.hua.dit.dras.benchmark.ListingFilterBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListingFilterBenchmark {
+
+    @Param({"10000", "50000"})
+    public int listings;
+
+    private final ListingBitmapIndex index = new ListingBitmapIndex();
+    private final List<ListingIndexRow> rows = new ArrayList<>();
+    private ListingFilterDTO filter;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        PropertyType[] types = PropertyType.values();
+        ListingStatus[] statuses = ListingStatus.values();
+        RentalDuration[] durations = RentalDuration.values();
+
+        for (int id = 1; id <= listings; id++) {
+            int size = 20 + random.nextInt(180);
+            int pricePerM2 = 5 + random.nextInt(30);
+            ListingIndexRow row = new ListingIndexRow(
+                    id,
+                    types[random.nextInt(types.length)],
+                    statuses[random.nextInt(statuses.length)],
+                    random.nextInt(10) < 8,
+                    durations[random.nextInt(durations.length)],
+                    size * pricePerM2,
+                    pricePerM2,
+                    size,
+                    1 + random.nextInt(6),
+                    null,
+                    null,
+                    37.90 + random.nextDouble() * 0.15,
+                    23.65 + random.nextDouble() * 0.20,
+                    Instant.now().minusSeconds(random.nextInt(1_000_000))
+            );
+            rows.add(row);
+            index.put(row);
+        }
+
+        /* "Apartments under 800 euro with at least two rooms" */
+        filter = new ListingFilterDTO();
+        filter.setType(PropertyType.APARTMENT);
+        filter.setMaxPrice(800);
+        filter.setMinBedrooms(2);
+    }
+
+    @Benchmark
+    public BitSet bitmapIndex() {
+        return index.match(filter);
+    }
+
+    @Benchmark
+    public BitSet rowScan() {
+        BitSet result = new BitSet();
+        for (ListingIndexRow row : rows) {
+            if (row.getPropertyType() == filter.getType()
+                    && row.getPrice() <= filter.getMaxPrice()
+                    && row.getRooms() >= filter.getMinBedrooms()) {
+                result.set(row.getId());
+            }
+        }
+        return result;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ListingFilterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,148 @@
+package gr.hua.dit.dras.benchmark;
+
+/* imports */
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import gr.hua.dit.dras.dto.ExternalListingDTO;
+import gr.hua.dit.dras.imports.ExternalListingReader;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Decoding cost of an import batch by payload format and body compression: decompression,
+ * parsing and binding through ExternalListingReader, as the streaming endpoint does it.
+ * Scores are listings per second; the GC profiler adds the allocation rate per listing
+ * (gc.alloc.rate.norm, divided by the batch size), and the batch size on the wire of every
+ * combination is printed at setup.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=gr.hua.dit.dras.benchmark.PayloadFormatBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadFormatBenchmark {
+
+    private static final int LISTINGS = 5_000;
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"none", "gzip", "zstd"})
+    public String compression;
+
+    private ObjectMapper mapper;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper json = new ObjectMapper().findAndRegisterModules();
+        mapper = switch (format) {
+            case "cbor" -> json.copyWith(new CBORFactory());
+            case "smile" -> json.copyWith(new SmileFactory());
+            default -> json;
+        };
+
+        byte[] encoded = mapper.writeValueAsBytes(generate());
+        payload = compress(encoded);
+        System.out.println(format + "/" + compression + ": " + LISTINGS + " listings, "
+                + encoded.length / 1024 + " KiB encoded, " + payload.length / 1024 + " KiB on the wire.");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LISTINGS)
+    public int decode() throws IOException {
+        int count = 0;
+        try (ExternalListingReader reader = new ExternalListingReader(mapper, decompress(payload))) {
+            while (reader.next() != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private byte[] compress(byte[] encoded) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream compressed = switch (compression) {
+            case "gzip" -> new GZIPOutputStream(out);
+            case "zstd" -> new ZstdOutputStream(out, 3);
+            default -> out;
+        }) {
+            compressed.write(encoded);
+        }
+        return out.toByteArray();
+    }
+
+    private InputStream decompress(byte[] compressed) throws IOException {
+        InputStream in = new ByteArrayInputStream(compressed);
+        return switch (compression) {
+            case "gzip" -> new GZIPInputStream(in, 64 * 1024);
+            case "zstd" -> new ZstdInputStream(in);
+            default -> in;
+        };
+    }
+
+    /**
+     * Scrape-like listings with long Greek descriptions, as the nightly batches carry.
+     */
+    private static List<ExternalListingDTO> generate() {
+        Random random = new Random(42);
+        String[] areas = {"Κουκάκι", "Παγκράτι", "Κυψέλη", "Εξάρχεια", "Γλυφάδα", "Μαρούσι"};
+        List<ExternalListingDTO> result = new ArrayList<>(LISTINGS);
+
+        for (int i = 0; i < LISTINGS; i++) {
+            int size = 20 + random.nextInt(180);
+            int pricePerM2 = 5 + random.nextInt(30);
+            String area = areas[random.nextInt(areas.length)];
+
+            ExternalListingDTO dto = new ExternalListingDTO();
+            dto.setTitle("Διαμέρισμα " + size + " τ.μ. προς ενοικίαση, " + area);
+            dto.setSubtitle(area + ", Αθήνα");
+            dto.setDescription(("Φωτεινό διαμέρισμα " + size + " τ.μ. στον " + (1 + random.nextInt(6))
+                    + "ο όροφο, κοντά στο μετρό, πλήρως ανακαινισμένο, με αυτόνομη θέρμανση και θέα. ")
+                    .repeat(6 + random.nextInt(6)));
+            dto.setPrice(size * pricePerM2);
+            dto.setPricePerM2(pricePerM2);
+            dto.setAddress(area + ", Αθήνα");
+            dto.setSizeM2(size);
+            dto.setRooms(1 + random.nextInt(6));
+            dto.setPropertyType("Διαμέρισμα");
+            dto.setRentalDuration("Απεριόριστη");
+            dto.setSourceUrl("https://rentola.gr/listings/" + i);
+            dto.setDateScraped(Instant.now());
+            dto.setImages(List.of(
+                    "https://rentola.gr/images/" + i + "/1.jpg",
+                    "https://rentola.gr/images/" + i + "/2.jpg",
+                    "https://rentola.gr/images/" + i + "/3.jpg"));
+            result.add(dto);
+        }
+        return result;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PayloadFormatBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,105 @@
+package gr.hua.dit.dras.benchmark;
+
+/* imports */
+import gr.hua.dit.dras.imports.PropertyTypeMatcher;
+import gr.hua.dit.dras.model.enums.PropertyType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.ClassPathResource;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the compiled property type matcher with the keyword stream it replaced,
+ * over a mix of raw type texts as the scraper sends them. Scores are per text.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=gr.hua.dit.dras.benchmark.PropertyTypeClassifierBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropertyTypeClassifierBenchmark {
+
+    private static final String[] TEXTS = {
+            "Διαμέρισμα",
+            "Διαμέρισμα 85 τ.μ., 2ος όροφος",
+            "Μονοκατοικία",
+            "Στούντιο",
+            "Γκαρσονιέρα",
+            "Μεζονέτα",
+            "Λοφτ",
+            "Βίλα",
+            "Οικόπεδο",
+            "Επαγγελματικός χώρος"
+    };
+
+    /* The previous implementation, kept for comparison */
+    private static final Map<PropertyType, List<String>> PROPERTY_KEYWORDS = Map.of(
+            PropertyType.APARTMENT, List.of("διαμ"),
+            PropertyType.HOUSE, List.of("μονοκατοικ"),
+            PropertyType.STUDIO, List.of("στούντιο", "γκαρσονιέρα"),
+            PropertyType.MAISONETTE, List.of("μεζον"),
+            PropertyType.LOFT, List.of("λοφτ"),
+            PropertyType.VILLA, List.of("βίλα")
+    );
+
+    private PropertyTypeMatcher matcher;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (Reader reader = new InputStreamReader(
+                new ClassPathResource("classifier/property-types.txt").getInputStream(), StandardCharsets.UTF_8)) {
+            matcher = PropertyTypeMatcher.compile(reader);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(10)
+    public void compiledMatcher(Blackhole blackhole) {
+        for (String text : TEXTS) {
+            blackhole.consume(matcher.classify(text));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(10)
+    public void keywordStream(Blackhole blackhole) {
+        for (String text : TEXTS) {
+            blackhole.consume(streamClassify(text));
+        }
+    }
+
+    private static PropertyType streamClassify(String raw) {
+        if (raw == null || raw.isBlank()) {
+            return PropertyType.OTHER;
+        }
+
+        String normalized = raw.trim().toLowerCase();
+
+        return PROPERTY_KEYWORDS.entrySet().stream()
+                .filter(entry ->
+                        entry.getValue().stream()
+                                .anyMatch(normalized::contains)
+                )
+                .map(Map.Entry::getKey)
+                .findFirst()
+                .orElse(PropertyType.OTHER);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PropertyTypeClassifierBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}